@@ -0,0 +1,276 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import mk.webfactory.dz.maskededittext.Mask;
+import mk.webfactory.dz.maskededittext.MaskUtil;
+
+/**
+ * Masks, or strips the mask from, every line of a text file.
+ * <p>
+ * The input is memory mapped a region at a time, so files larger than the heap are supported, and lines are
+ * decoded in batches straight into reusable {@code char[]} buffers that are masked with the batch operations
+ * of {@link MaskUtil}. No {@link String} is created per line.
+ * <p>
+ * Only charsets in which {@code '\n'} is always a single byte, like UTF-8 or ISO-8859-1, are supported. Line
+ * endings of the output are {@code '\n'}, a trailing one is added to the last line if missing.
+ * <p>
+ * Usage:
+ * <pre>
+ * MaskFileTool mask|strip &lt;mask&gt; &lt;input&gt; &lt;output&gt; [--mask-character=#] [--no-enforce] [--charset=UTF-8]
+ * </pre>
+ */
+public final class MaskFileTool {
+
+    static final int REGION_SIZE = 64 * 1024 * 1024;
+    static final int LINES_PER_BATCH = 4096;
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4 || !("mask".equals(args[0]) || "strip".equals(args[0]))) {
+            System.err.println("Usage: MaskFileTool mask|strip <mask> <input> <output> "
+                    + "[--mask-character=#] [--no-enforce] [--charset=UTF-8]");
+            System.exit(1);
+            return;
+        }
+        char maskCharacter = Mask.DEFAULT_MASK_CHARACTER;
+        boolean enforceMaskLength = Mask.DEFAULT_ENFORCE_MAX_LEN;
+        Charset charset = StandardCharsets.UTF_8;
+        for (int i = 4; i < args.length; i++) {
+            if (args[i].startsWith("--mask-character=") && args[i].length() == "--mask-character=".length() + 1) {
+                maskCharacter = args[i].charAt(args[i].length() - 1);
+            } else if (args[i].equals("--no-enforce")) {
+                enforceMaskLength = false;
+            } else if (args[i].startsWith("--charset=")) {
+                charset = Charset.forName(args[i].substring("--charset=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        final long lines = process(Paths.get(args[2]), Paths.get(args[3]),
+                new Mask(args[1], maskCharacter, enforceMaskLength), "strip".equals(args[0]), charset);
+        System.out.println(lines + " lines");
+    }
+
+    /**
+     * Masks (or strips) every line of {@code input} and writes the results to {@code output}.
+     *
+     * @param strip If true the mask is stripped from the lines, otherwise it's applied
+     * @return Number of lines processed
+     * @throws IOException If the files can't be read/written, the input is not valid in {@code charset} or a line
+     * is longer than {@link #REGION_SIZE} bytes
+     */
+    public static long process(Path input, Path output, Mask mask, boolean strip, Charset charset)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final LineBatch lineBatch = new LineBatch(mask, strip, charset, out);
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                final MappedByteBuffer region =
+                        in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, size - position));
+                final int regionLength = region.limit();
+                final boolean lastRegion = position + regionLength == size;
+                int batchStart = 0;
+                int batchLines = 0;
+                for (int i = 0; i < regionLength; i++) {
+                    if (region.get(i) == '\n' && ++batchLines == LINES_PER_BATCH) {
+                        lineBatch.process(region, batchStart, i + 1);
+                        batchStart = i + 1;
+                        batchLines = 0;
+                    }
+                }
+                int processedLength = batchStart;
+                if (lastRegion) {
+                    lineBatch.process(region, batchStart, regionLength);
+                    processedLength = regionLength;
+                } else if (batchLines > 0) {
+                    processedLength = lastLineEnd(region, batchStart, regionLength);
+                    lineBatch.process(region, batchStart, processedLength);
+                } else if (batchStart == 0) {
+                    throw new IOException("Line longer than " + REGION_SIZE + " bytes at offset " + position);
+                }
+                position += processedLength;
+            }
+            lineBatch.flush();
+            return lineBatch.lineCount;
+        }
+    }
+
+    private static int lastLineEnd(ByteBuffer region, int start, int end) {
+        int i = end;
+        while (i > start && region.get(i - 1) != '\n') { i--; }
+        return i;
+    }
+
+    /** Decodes, masks and encodes batches of lines with buffers that are reused for the whole file. */
+    private static final class LineBatch {
+
+        private final Mask mask;
+        private final boolean strip;
+        private final CharsetDecoder decoder;
+        private final CharsetEncoder encoder;
+        private final FileChannel out;
+        private final ByteBuffer outBytes = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+        private final int[] lineEnds = new int[LINES_PER_BATCH + 1];
+        private final int[] resultEnds = new int[LINES_PER_BATCH + 1];
+        private char[] lines = new char[0];
+        private char[] results = new char[0];
+        private char[] outChars = new char[0];
+        long lineCount;
+
+        LineBatch(Mask mask, boolean strip, Charset charset, FileChannel out) {
+            this.mask = mask;
+            this.strip = strip;
+            this.decoder = charset.newDecoder();
+            this.encoder = charset.newEncoder();
+            this.out = out;
+        }
+
+        /** Processes the lines of {@code region[start, end)}. All but the last one must be terminated. */
+        void process(ByteBuffer region, int start, int end) throws IOException {
+            if (start == end) {
+                return;
+            }
+            final int decodedLength = decode(region, start, end);
+            final int count = splitLines(decodedLength);
+            if (count == 0) {
+                return;
+            }
+            final int resultsLength = strip
+                    ? MaskUtil.stripMask(lines, lineEnds, count, mask, results(lineEnds[count - 1]), resultEnds)
+                    : MaskUtil.setMask(lines, lineEnds, count, mask,
+                    results(MaskUtil.maskedLengthBound(mask, count, lineEnds[count - 1])), resultEnds);
+            encode(count, resultsLength);
+            lineCount += count;
+        }
+
+        private int decode(ByteBuffer region, int start, int end) throws IOException {
+            if (lines.length < end - start) {
+                lines = new char[end - start];
+            }
+            final ByteBuffer bytes = region.duplicate();
+            bytes.limit(end).position(start);
+            final CharBuffer chars = CharBuffer.wrap(lines);
+            decoder.reset();
+            throwOnError(decoder.decode(bytes, chars, true));
+            throwOnError(decoder.flush(chars));
+            return chars.position();
+        }
+
+        /** Removes the line terminators from {@link #lines} in place and records the line ends. */
+        private int splitLines(int length) {
+            int count = 0;
+            int pos = 0;
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                final char c = lines[i];
+                if (c != '\n') {
+                    lines[pos++] = c;
+                    continue;
+                }
+                if (pos > lineStart && lines[pos - 1] == '\r') {
+                    pos--;
+                }
+                lineEnds[count++] = pos;
+                lineStart = pos;
+            }
+            if (pos > lineStart) {
+                lineEnds[count++] = pos;
+            }
+            return count;
+        }
+
+        private char[] results(int length) {
+            if (results.length < length) {
+                results = new char[length];
+            }
+            return results;
+        }
+
+        private void encode(int count, int resultsLength) throws IOException {
+            if (outChars.length < resultsLength + count) {
+                outChars = new char[resultsLength + count];
+            }
+            int pos = 0;
+            for (int i = 0, start = 0; i < count; start = resultEnds[i++]) {
+                System.arraycopy(results, start, outChars, pos, resultEnds[i] - start);
+                pos += resultEnds[i] - start;
+                outChars[pos++] = '\n';
+            }
+            final CharBuffer chars = CharBuffer.wrap(outChars, 0, pos);
+            encoder.reset();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, outBytes, true);
+                if (result.isOverflow()) {
+                    drain();
+                } else {
+                    throwOnError(result);
+                }
+            } while (result.isOverflow());
+            while (encoder.flush(outBytes).isOverflow()) {
+                drain();
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+        }
+
+        private void drain() throws IOException {
+            outBytes.flip();
+            while (outBytes.hasRemaining()) {
+                out.write(outBytes);
+            }
+            outBytes.clear();
+        }
+
+        private static void throwOnError(CoderResult result) throws IOException {
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+    }
+
+    private MaskFileTool() {
+        throw new AssertionError();
+    }
+}
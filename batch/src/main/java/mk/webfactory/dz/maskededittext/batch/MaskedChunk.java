@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import mk.webfactory.dz.maskededittext.Mask;
+import mk.webfactory.dz.maskededittext.MaskUtil;
+
+/**
+ * Chunk of inputs masked (or stripped) together with the batch operations of {@link MaskUtil}. The input list
+ * and the output buffers are reused for every chunk, so an instance must not be shared between threads.
+ */
+final class MaskedChunk {
+
+    static final int CHUNK_SIZE = 1024;
+
+    private final Mask mask;
+    private final boolean strip;
+    private final List<CharSequence> inputs = new ArrayList<>(CHUNK_SIZE);
+    private final int[] ends = new int[CHUNK_SIZE];
+    private char[] out = new char[0];
+    private int inputsLength;
+    private int processedCount;
+
+    MaskedChunk(Mask mask, boolean strip) {
+        this.mask = mask;
+        this.strip = strip;
+    }
+
+    /** @return New chunk with the same mask and operation */
+    MaskedChunk newEmptyCopy() {
+        return new MaskedChunk(mask, strip);
+    }
+
+    /** Adds an input, the chunk must not be full. */
+    void add(CharSequence input) {
+        inputs.add(input);
+        inputsLength += input.length();
+    }
+
+    boolean isFull() {
+        return inputs.size() == CHUNK_SIZE;
+    }
+
+    boolean isEmpty() {
+        return inputs.isEmpty();
+    }
+
+    /** @return Number of inputs that have been masked by the last {@link #process()} */
+    int size() {
+        return processedCount;
+    }
+
+    /** Masks all the added inputs. The inputs are cleared and the results are available until the next call. */
+    void process() {
+        final int requiredLength = strip
+                ? inputsLength
+                : MaskUtil.maskedLengthBound(mask, inputs.size(), inputsLength);
+        if (out.length < requiredLength) {
+            out = new char[Math.max(requiredLength, out.length * 2)];
+        }
+        if (strip) {
+            MaskUtil.stripMask(inputs, mask, out, ends);
+        } else {
+            MaskUtil.setMask(inputs, mask, out, ends);
+        }
+        processedCount = inputs.size();
+        inputs.clear();
+        inputsLength = 0;
+    }
+
+    /** @return The result at {@code index} of the last {@link #process()} */
+    String get(int index) {
+        final int start = index == 0 ? 0 : ends[index - 1];
+        return new String(out, start, ends[index] - start);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that masks (or strips) the elements of a source spliterator one {@link MaskedChunk} at a time.
+ * Every split owns its chunk, so parallel streams mask on each worker thread without sharing or allocating
+ * scratch space per element. Encounter order is kept.
+ */
+final class MaskingSpliterator implements Spliterator<String> {
+
+    private final Spliterator<? extends CharSequence> source;
+    private final MaskedChunk chunk;
+    private final Consumer<CharSequence> chunkAppender;
+    private int cursor;
+
+    MaskingSpliterator(Spliterator<? extends CharSequence> source, MaskedChunk chunk) {
+        this.source = source;
+        this.chunk = chunk;
+        this.chunkAppender = chunk::add;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (cursor == chunk.size() && !nextChunk()) {
+            return false;
+        }
+        action.accept(chunk.get(cursor++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        do {
+            while (cursor < chunk.size()) {
+                action.accept(chunk.get(cursor++));
+            }
+        } while (nextChunk());
+    }
+
+    private boolean nextChunk() {
+        while (!chunk.isFull() && source.tryAdvance(chunkAppender)) {
+            //added by chunkAppender
+        }
+        if (chunk.isEmpty()) {
+            return false;
+        }
+        chunk.process();
+        cursor = 0;
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (cursor < chunk.size()) {
+            //the processed chunk precedes anything that's split off, so it's emitted first
+            return null;
+        }
+        final Spliterator<? extends CharSequence> prefix = source.trySplit();
+        return prefix == null ? null : new MaskingSpliterator(prefix, chunk.newEmptyCopy());
+    }
+
+    @Override
+    public long estimateSize() {
+        final long sourceSize = source.estimateSize();
+        return sourceSize == Long.MAX_VALUE ? sourceSize : sourceSize + chunk.size() - cursor;
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT) | NONNULL;
+    }
+}
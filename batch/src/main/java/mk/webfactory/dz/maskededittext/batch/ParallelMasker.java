@@ -0,0 +1,145 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import mk.webfactory.dz.maskededittext.Mask;
+import mk.webfactory.dz.maskededittext.MaskUtil;
+
+/**
+ * Masks and strips large data sets across all cores, reusing the logic of {@link MaskUtil#setMask(String, Mask)}
+ * and {@link MaskUtil#stripMask(String, Mask)}.
+ * <p>
+ * Inputs are processed in chunks with per-split (and therefore per-thread) scratch buffers, and the results
+ * keep the encounter order of the inputs. Parallel streams run on the common {@link java.util.concurrent.ForkJoinPool}.
+ * <p>
+ * Example:
+ * <pre>
+ * List&lt;String&gt; phones = ParallelMasker.setMask(rawPhones, Mask.from("+(###) ###-###"));
+ * List&lt;String&gt; cards = rawCards.parallelStream().collect(ParallelMasker.toMaskedList(cardMask));
+ * </pre>
+ */
+public final class ParallelMasker {
+
+    /** @return Masked inputs in the order of {@code rawInputs}, computed in parallel */
+    public static List<String> setMask(List<? extends CharSequence> rawInputs, Mask mask) {
+        return setMask(rawInputs.parallelStream(), mask).collect(Collectors.<String>toList());
+    }
+
+    /** @return Raw inputs in the order of {@code maskedInputs}, computed in parallel */
+    public static List<String> stripMask(List<? extends CharSequence> maskedInputs, Mask mask) {
+        return stripMask(maskedInputs.parallelStream(), mask).collect(Collectors.<String>toList());
+    }
+
+    /**
+     * @return Stream of the masked inputs, parallel if {@code rawInputs} is. Closing it closes {@code rawInputs}.
+     */
+    public static Stream<String> setMask(Stream<? extends CharSequence> rawInputs, Mask mask) {
+        return map(rawInputs, mask, false);
+    }
+
+    /**
+     * @return Stream of the raw inputs, parallel if {@code maskedInputs} is. Closing it closes
+     * {@code maskedInputs}.
+     */
+    public static Stream<String> stripMask(Stream<? extends CharSequence> maskedInputs, Mask mask) {
+        return map(maskedInputs, mask, true);
+    }
+
+    /** @return Collector that masks the inputs into a list, in encounter order */
+    public static Collector<CharSequence, ?, List<String>> toMaskedList(Mask mask) {
+        return collector(mask, false);
+    }
+
+    /** @return Collector that strips the inputs into a list, in encounter order */
+    public static Collector<CharSequence, ?, List<String>> toStrippedList(Mask mask) {
+        return collector(mask, true);
+    }
+
+    private static Stream<String> map(Stream<? extends CharSequence> inputs, Mask mask, boolean strip) {
+        final MaskingSpliterator spliterator = new MaskingSpliterator(inputs.spliterator(), new MaskedChunk(mask, strip));
+        return StreamSupport.stream(spliterator, inputs.isParallel())
+                .onClose(inputs::close);
+    }
+
+    private static Collector<CharSequence, ?, List<String>> collector(final Mask mask, final boolean strip) {
+        return Collector.of(
+                () -> new ChunkedResult(mask, strip),
+                ChunkedResult::add,
+                ChunkedResult::addAll,
+                ChunkedResult::finish);
+    }
+
+    /**
+     * Collector container. Inputs are masked a chunk at a time as they are accumulated, i.e. on the thread that
+     * accumulates them, so the work is spread like the accumulation of a parallel stream.
+     */
+    private static final class ChunkedResult {
+
+        private final MaskedChunk chunk;
+        private final List<String> results = new ArrayList<>();
+
+        ChunkedResult(Mask mask, boolean strip) {
+            chunk = new MaskedChunk(mask, strip);
+        }
+
+        void add(CharSequence input) {
+            chunk.add(input);
+            if (chunk.isFull()) {
+                flush();
+            }
+        }
+
+        ChunkedResult addAll(ChunkedResult other) {
+            flush();
+            other.flush();
+            results.addAll(other.results);
+            return this;
+        }
+
+        List<String> finish() {
+            flush();
+            return results;
+        }
+
+        private void flush() {
+            if (!chunk.isEmpty()) {
+                chunk.process();
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(chunk.get(i));
+                }
+            }
+        }
+    }
+
+    private ParallelMasker() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import mk.webfactory.dz.maskededittext.Mask;
+import mk.webfactory.dz.maskededittext.MaskUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class MaskFileToolTest {
+
+    private static final Mask MASK = new Mask("+(###) ###-###", '#', true);
+
+    private Path input;
+    private Path output;
+
+    @Before
+    public void setUp() throws Exception {
+        input = File.createTempFile("masked-input", ".txt").toPath();
+        output = File.createTempFile("masked-output", ".txt").toPath();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Test
+    public void testMaskLines() throws Exception {
+        write("123456789\r\n12\n\n1234567890123\n€€€");
+
+        final long lines = MaskFileTool.process(input, output, MASK, false, StandardCharsets.UTF_8);
+
+        assertEquals(5, lines);
+        assertEquals("+(123) 456-789\n+(12\n+(\n+(123) 456-789\n+(€€€) \n", read());
+    }
+
+    @Test
+    public void testStripLines() throws Exception {
+        write("+(123) 456-789\n+(12\n");
+
+        MaskFileTool.process(input, output, MASK, true, StandardCharsets.UTF_8);
+
+        assertEquals("123456789\n12\n", read());
+    }
+
+    @Test
+    public void testManyBatches() throws Exception {
+        final List<String> rawInputs = new ArrayList<>();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 3 * MaskFileTool.LINES_PER_BATCH + 5; i++) {
+            rawInputs.add(Integer.toString(i * 31));
+            expected.append(MaskUtil.setMask(rawInputs.get(i), MASK)).append('\n');
+        }
+        Files.write(input, rawInputs, StandardCharsets.UTF_8);
+
+        final long lines = MaskFileTool.process(input, output, MASK, false, StandardCharsets.UTF_8);
+
+        assertEquals(rawInputs.size(), lines);
+        assertEquals(expected.toString(), read());
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        assertEquals(0, MaskFileTool.process(input, output, MASK, false, StandardCharsets.UTF_8));
+        assertEquals("", read());
+    }
+
+    private void write(String text) throws Exception {
+        Files.write(input, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read() throws Exception {
+        return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import mk.webfactory.dz.maskededittext.Mask;
+import mk.webfactory.dz.maskededittext.MaskUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelMaskerTest {
+
+    private static final Mask MASK = new Mask("+(###) ###-###", '#', false);
+
+    private final List<String> rawInputs = rawInputs(10 * MaskedChunk.CHUNK_SIZE + 7);
+
+    @Test
+    public void testSetMaskKeepsOrder() throws Exception {
+        final List<String> masked = ParallelMasker.setMask(rawInputs, MASK);
+
+        assertEquals(expectedMasked(), masked);
+    }
+
+    @Test
+    public void testStripMask() throws Exception {
+        final List<String> masked = expectedMasked();
+
+        assertEquals(rawInputs, ParallelMasker.stripMask(masked, MASK));
+    }
+
+    @Test
+    public void testCollectors() throws Exception {
+        final List<String> masked = rawInputs.parallelStream().collect(ParallelMasker.toMaskedList(MASK));
+
+        assertEquals(expectedMasked(), masked);
+        assertEquals(rawInputs, masked.stream().collect(ParallelMasker.toStrippedList(MASK)));
+    }
+
+    @Test
+    public void testSequentialStream() throws Exception {
+        final List<String> masked = ParallelMasker.setMask(rawInputs.stream(), MASK).collect(Collectors.toList());
+
+        assertEquals(expectedMasked(), masked);
+    }
+
+    @Test
+    public void testCloseClosesSource() throws Exception {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final Stream<String> source = rawInputs.stream().onClose(() -> closed.set(true));
+
+        ParallelMasker.setMask(source, MASK).close();
+
+        assertTrue(closed.get());
+    }
+
+    private List<String> expectedMasked() {
+        final List<String> masked = new ArrayList<>(rawInputs.size());
+        for (final String rawInput : rawInputs) {
+            masked.add(MaskUtil.setMask(rawInput, MASK));
+        }
+        return masked;
+    }
+
+    private static List<String> rawInputs(int count) {
+        final List<String> rawInputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rawInputs.add(Integer.toString(i * 7919));
+        }
+        return rawInputs;
+    }
+}
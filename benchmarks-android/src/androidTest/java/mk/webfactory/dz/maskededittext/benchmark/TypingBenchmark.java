@@ -0,0 +1,197 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.benchmark;
+
+import android.content.Context;
+import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+import mk.webfactory.dz.maskededittext.MaskedEditText;
+
+/**
+ * Time and allocations per edit of a {@link MaskedEditText}, from the IME call to the measured and laid out
+ * view. Every measured iteration is a single edit, the text is reset outside of the measurement whenever the
+ * mask is full or empty.
+ */
+@RunWith(Parameterized.class)
+public class TypingBenchmark {
+
+    private static final int WIDTH_SPEC = View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.AT_MOST);
+    private static final int HEIGHT_SPEC = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<TypingMask> masks() {
+        return Arrays.asList(TypingMask.values());
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final TypingMask typingMask;
+    private MaskedEditText maskedEditText;
+    private InputConnection inputConnection;
+
+    public TypingBenchmark(TypingMask typingMask) {
+        this.typingMask = typingMask;
+    }
+
+    /** A key press committed by the IME at the end of the text. */
+    @Test
+    public void commitAtEnd() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final BenchmarkState state = setUp("");
+                int typed = 0;
+                while (state.keepRunning()) {
+                    if (typed == typingMask.rawInput.length()) {
+                        state.pauseTiming();
+                        reset("");
+                        typed = 0;
+                        state.resumeTiming();
+                    }
+                    inputConnection.commitText(typingMask.rawInput.subSequence(typed, typed + 1), 1);
+                    typed++;
+                    layout();
+                }
+            }
+        });
+    }
+
+    /** A key press committed by the IME in the middle of the text, every following character moves. */
+    @Test
+    public void commitInTheMiddle() {
+        final String half = typingMask.rawInput.substring(0, typingMask.rawInput.length() / 2);
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final BenchmarkState state = setUp(half);
+                while (state.keepRunning()) {
+                    if (maskedEditText.getRawInput().length() == typingMask.rawInput.length()) {
+                        state.pauseTiming();
+                        reset(half);
+                        state.resumeTiming();
+                    }
+                    maskedEditText.setSelection(maskedEditText.length() / 2);
+                    inputConnection.commitText("5", 1);
+                    layout();
+                }
+            }
+        });
+    }
+
+    /** Backspace at the end of the full text, including the ones that remove a literal with a raw character. */
+    @Test
+    public void backspace() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final BenchmarkState state = setUp(typingMask.rawInput);
+                while (state.keepRunning()) {
+                    if (maskedEditText.length() == 0) {
+                        state.pauseTiming();
+                        reset(typingMask.rawInput);
+                        state.resumeTiming();
+                    }
+                    inputConnection.deleteSurroundingText(1, 0);
+                    layout();
+                }
+            }
+        });
+    }
+
+    /** Paste of the whole raw input into an empty field. */
+    @Test
+    public void paste() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final BenchmarkState state = setUp("");
+                while (state.keepRunning()) {
+                    state.pauseTiming();
+                    reset("");
+                    state.resumeTiming();
+                    maskedEditText.getText().replace(0, 0, typingMask.rawInput);
+                    layout();
+                }
+            }
+        });
+    }
+
+    /** Prefilled content set by the app. */
+    @Test
+    public void setText() {
+        runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final BenchmarkState state = setUp("");
+                boolean filled = false;
+                while (state.keepRunning()) {
+                    maskedEditText.setText(filled ? "" : typingMask.rawInput);
+                    filled = !filled;
+                    layout();
+                }
+            }
+        });
+    }
+
+    private BenchmarkState setUp(String rawInput) {
+        final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        maskedEditText = new MaskedEditText(context);
+        maskedEditText.setMask(typingMask.mask);
+        inputConnection = maskedEditText.onCreateInputConnection(new EditorInfo());
+        reset(rawInput);
+        return benchmarkRule.getState();
+    }
+
+    private void reset(String rawInput) {
+        maskedEditText.setText(rawInput);
+        maskedEditText.setSelection(maskedEditText.length());
+        layout();
+    }
+
+    /** The layout pass that a window would run before drawing the next frame. */
+    private void layout() {
+        maskedEditText.measure(WIDTH_SPEC, HEIGHT_SPEC);
+        maskedEditText.layout(0, 0, maskedEditText.getMeasuredWidth(), maskedEditText.getMeasuredHeight());
+    }
+
+    private static void runOnMainSync(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+}
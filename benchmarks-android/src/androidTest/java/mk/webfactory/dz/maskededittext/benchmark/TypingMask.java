@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext.benchmark;
+
+import mk.webfactory.dz.maskededittext.Mask;
+
+/** Realistic masks typed into by the benchmarks. */
+public enum TypingMask {
+
+    CARD(Mask.from("#### #### #### ####")),
+    PHONE(Mask.from("+### (##) ###-###")),
+    IBAN(Mask.from("#### #### #### #### #### #### #### #### ##")),
+    AMOUNT(new Mask.Builder().setMask("#,###,###.##").setReverseFill(true).build()),
+    FREE_FORM(new Mask(repeat("#####-", 24), Mask.DEFAULT_MASK_CHARACTER, false));
+
+    final Mask mask;
+    /** Input that fills every slot of the mask. */
+    final String rawInput;
+
+    TypingMask(Mask mask) {
+        this.mask = mask;
+        StringBuilder rawInputBuilder = new StringBuilder();
+        for (int i = 0; i < mask.slotCount(); i++) {
+            rawInputBuilder.append((char) ('1' + i % 9));
+        }
+        this.rawInput = rawInputBuilder.toString();
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            stringBuilder.append(text);
+        }
+        return stringBuilder.toString();
+    }
+}
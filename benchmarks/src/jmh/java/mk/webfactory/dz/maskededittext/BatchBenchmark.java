@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Masking a data set one value at a time compared to the batch API. */
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    @Param({"CARD", "PHONE", "IBAN"})
+    BenchmarkMask benchmarkMask;
+
+    @Param({"10000"})
+    int count;
+
+    private Mask mask;
+    private List<String> rawInputs;
+    private char[] packedRawInputs;
+    private int[] inputEnds;
+    private char[] out;
+    private int[] ends;
+
+    @Setup
+    public void setUp() {
+        mask = benchmarkMask.mask;
+        rawInputs = new ArrayList<>(count);
+        inputEnds = new int[count];
+        final Random random = new Random(0);
+        final StringBuilder packed = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            final int length = mask.slotCount() / 2 + random.nextInt(mask.slotCount() / 2 + 1);
+            final String rawInput = benchmarkMask.rawInput.substring(0, length);
+            rawInputs.add(rawInput);
+            packed.append(rawInput);
+            inputEnds[i] = packed.length();
+        }
+        packedRawInputs = packed.toString().toCharArray();
+        out = new char[MaskUtil.maskedLengthBound(mask, count, packedRawInputs.length)];
+        ends = new int[count];
+    }
+
+    @Benchmark
+    public void setMaskOneByOne(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(MaskUtil.setMask(rawInputs.get(i), mask));
+        }
+    }
+
+    @Benchmark
+    public int setMaskList() {
+        return MaskUtil.setMask(rawInputs, mask, out, ends);
+    }
+
+    @Benchmark
+    public int setMaskPacked() {
+        return MaskUtil.setMask(packedRawInputs, inputEnds, count, mask, out, ends);
+    }
+}
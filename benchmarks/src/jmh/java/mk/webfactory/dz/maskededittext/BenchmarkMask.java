@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/** Realistic masks shared by the benchmarks. */
+enum BenchmarkMask {
+
+    CARD("#### #### #### ####", true),
+    PHONE("+### (##) ###-###", true),
+    IBAN("#### #### #### #### #### #### #### #### ##", true),
+    FREE_FORM(repeat("#####-", 24), false);
+
+    final Mask mask;
+    /** Input that fills every slot of the mask. */
+    final String rawInput;
+    final String maskedInput;
+
+    BenchmarkMask(String mask, boolean enforceMaskLength) {
+        this.mask = new Mask(mask, Mask.DEFAULT_MASK_CHARACTER, enforceMaskLength);
+        StringBuilder rawInputBuilder = new StringBuilder();
+        for (int i = 0; i < this.mask.slotCount(); i++) {
+            rawInputBuilder.append((char) ('0' + i % 10));
+        }
+        this.rawInput = rawInputBuilder.toString();
+        this.maskedInput = MaskUtil.setMask(rawInput, this.mask);
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            stringBuilder.append(text);
+        }
+        return stringBuilder.toString();
+    }
+}
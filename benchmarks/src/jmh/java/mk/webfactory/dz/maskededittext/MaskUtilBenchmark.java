@@ -0,0 +1,65 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Whole text operations of {@link MaskUtil}. */
+@State(Scope.Thread)
+public class MaskUtilBenchmark {
+
+    @Param({"CARD", "PHONE", "IBAN", "FREE_FORM"})
+    BenchmarkMask benchmarkMask;
+
+    private Mask mask;
+    private String rawInput;
+    private String maskedInput;
+
+    @Setup
+    public void setUp() {
+        mask = benchmarkMask.mask;
+        rawInput = benchmarkMask.rawInput;
+        maskedInput = benchmarkMask.maskedInput;
+    }
+
+    @Benchmark
+    public String setMask() {
+        return MaskUtil.setMask(rawInput, mask);
+    }
+
+    @Benchmark
+    public String stripMask() {
+        return MaskUtil.stripMask(maskedInput, mask);
+    }
+
+    @Benchmark
+    public boolean isInputMasked() {
+        return MaskUtil.isInputMasked(maskedInput, mask);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Single keystroke/paste re-masking, both through the String based
+ * {@link MaskUtil#reMaskSubsequentInput(String, String, Mask)} and through the incremental, buffer based
+ * path used by {@link MaskEnforcingTextWatcher}. The latter also restores its state on every invocation,
+ * which is a plain array copy.
+ */
+@State(Scope.Thread)
+public class ReMaskBenchmark {
+
+    public enum Edit {
+        /** Typing one character at the end. */
+        APPEND,
+        /** Deleting one character in the middle. */
+        DELETE_IN_MIDDLE,
+        /** Pasting a block of characters in the middle. */
+        PASTE,
+        /** Backspace over a literal character, which removes the raw character before it. */
+        LITERAL_BACKSPACE
+    }
+
+    private static final String PASTED_TEXT = "98765432";
+
+    @Param({"CARD", "PHONE", "IBAN", "FREE_FORM"})
+    BenchmarkMask benchmarkMask;
+
+    @Param({"APPEND", "DELETE_IN_MIDDLE", "PASTE", "LITERAL_BACKSPACE"})
+    Edit edit;
+
+    private Mask mask;
+    private String prevTextMasked;
+    private String prevRawInput;
+    private String nextTextWithChanges;
+    private int sub1Length;
+
+    private final TextSelectionBuffer textMasked = new TextSelectionBuffer();
+    private final TextSelectionBuffer rawInput = new TextSelectionBuffer();
+
+    @Setup
+    public void setUp() {
+        mask = benchmarkMask.mask;
+        final String masked = benchmarkMask.maskedInput;
+        final int middle = mask.slotIndices[mask.slotCount() / 2];
+        switch (edit) {
+            case APPEND:
+                prevTextMasked = MaskUtil.setMask(
+                        benchmarkMask.rawInput.substring(0, benchmarkMask.rawInput.length() - 1), mask);
+                nextTextWithChanges = prevTextMasked + benchmarkMask.rawInput.charAt(mask.slotCount() - 1);
+                break;
+            case DELETE_IN_MIDDLE:
+                prevTextMasked = masked;
+                nextTextWithChanges = masked.substring(0, middle) + masked.substring(middle + 1);
+                break;
+            case PASTE:
+                prevTextMasked = MaskUtil.setMask(
+                        benchmarkMask.rawInput.substring(0, benchmarkMask.rawInput.length() / 2), mask);
+                final int pasteIndex = Math.min(middle, prevTextMasked.length());
+                nextTextWithChanges = prevTextMasked.substring(0, pasteIndex)
+                        + PASTED_TEXT
+                        + prevTextMasked.substring(pasteIndex);
+                break;
+            case LITERAL_BACKSPACE:
+                final int literal = findLiteral(mask, middle);
+                prevTextMasked = masked;
+                nextTextWithChanges = masked.substring(0, literal) + masked.substring(literal + 1);
+                break;
+            default:
+                throw new IllegalStateException("Unknown edit: " + edit);
+        }
+        prevRawInput = MaskUtil.stripMask(prevTextMasked, mask);
+        sub1Length = MaskUtil.commonPrefixLength(prevTextMasked, nextTextWithChanges);
+    }
+
+    @Benchmark
+    public TextSelectionWrapper reMaskSubsequentInput() {
+        return MaskUtil.reMaskSubsequentInput(prevTextMasked, nextTextWithChanges, mask);
+    }
+
+    @Benchmark
+    public int reMaskIncrementally() {
+        textMasked.set(prevTextMasked);
+        rawInput.set(prevRawInput);
+        return MaskUtil.reMaskSubsequentInput(textMasked, rawInput, nextTextWithChanges, sub1Length, mask);
+    }
+
+    private static int findLiteral(Mask mask, int fromIndex) {
+        for (int i = fromIndex; i < mask.maskChars.length; i++) {
+            if (mask.maskChars[i] != mask.maskCharacter) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Mask has no literal after index " + fromIndex);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/**
+ * Class of characters accepted by a placeholder of a {@link Mask}.
+ * <p>
+ * ASCII characters are checked with a precomputed table, other characters fall back to the Unicode
+ * categories of {@link Character}.
+ */
+public enum CharClass {
+
+    /** Any character, the class of the mask character. */
+    ANY,
+    /** Decimal digit, see {@link Character#isDigit(char)} */
+    DIGIT,
+    /** Letter, see {@link Character#isLetter(char)} */
+    LETTER,
+    /** Letter or decimal digit, see {@link Character#isLetterOrDigit(char)} */
+    LETTER_OR_DIGIT;
+
+    /** For every ASCII character, a bit for each class that accepts it. */
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CLASSES.length; c++) {
+            int classes = ANY.bit();
+            if (c >= '0' && c <= '9') {
+                classes |= DIGIT.bit() | LETTER_OR_DIGIT.bit();
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                classes |= LETTER.bit() | LETTER_OR_DIGIT.bit();
+            }
+            ASCII_CLASSES[c] = (byte) classes;
+        }
+    }
+
+    private int bit() {
+        return 1 << ordinal();
+    }
+
+    /** @return True if {@code c} may be put in a placeholder of this class. */
+    public boolean accepts(char c) {
+        if (c < ASCII_CLASSES.length) {
+            return (ASCII_CLASSES[c] & bit()) != 0;
+        }
+        switch (this) {
+            case DIGIT:
+                return Character.isDigit(c);
+            case LETTER:
+                return Character.isLetter(c);
+            case LETTER_OR_DIGIT:
+                return Character.isLetterOrDigit(c);
+            default:
+                return true;
+        }
+    }
+}
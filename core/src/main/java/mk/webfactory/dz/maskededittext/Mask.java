@@ -0,0 +1,398 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.Arrays;
+
+/**
+ * Immutable mask definition together with its compiled slot table.
+ * <p>
+ * The mask character is used to define an input char placeholder, every other character of the mask is
+ * a literal that is added to the input. Default mask character is '#'.
+ * <p>
+ * Additional placeholders that accept only a {@link CharClass} of characters can be defined with the
+ * {@link Builder}, e.g. {@code 00/00} with {@code '0'} for {@link CharClass#DIGIT}. Input characters that a
+ * placeholder does not accept are dropped while masking.
+ * <p>
+ * A reverse-fill mask fills the placeholders from right to left, e.g. amounts with {@code #,###,###.##} where
+ * an input of {@code 12345} is masked as {@code 123.45}. The masked text is the end of the mask from the
+ * first filled placeholder on. Input beyond the mask is kept in front of it unless the mask length is
+ * enforced, in which case the input that does not fit is dropped from the end.
+ * <p>
+ * The table is computed once, on construction, so that {@link MaskUtil} can mask and strip input
+ * without re-scanning the mask string on every change:
+ * <ul>
+ * <li>{@link #slotIndices} - index in the mask of every placeholder (mask character), in order</li>
+ * <li>{@link #rawIndices} - for every masked index (and the mask length), the raw index of the input
+ * character that belongs at or after that position, i.e. the number of slots preceding it</li>
+ * <li>{@link #maskChars} - the mask characters; the literal runs are the segments between consecutive
+ * slots</li>
+ * <li>{@link #slotClasses} - the class of every slot, null if all slots accept any character</li>
+ * </ul>
+ * A mask is thread-safe: all of its state is final and never changed after construction, so one instance
+ * can be shared by any number of threads without locking, e.g. a constant used by a pool of request
+ * handlers. Reusable buffers for masking on such threads are held by {@link MaskFormatter}s, one per thread.
+ */
+public final class Mask {
+
+    public static final String DEFAULT_MASK_STRING = "";
+    public static final char DEFAULT_MASK_CHARACTER = '#';
+    public static final boolean DEFAULT_ENFORCE_MAX_LEN = true;
+
+    final String mask;
+    final char maskCharacter;
+    final boolean enforceMaskLength;
+    final boolean reverseFill;
+
+    final char[] placeholders;
+    final CharClass[] placeholderClasses;
+
+    final char[] maskChars;
+    final int[] slotIndices;
+    final int[] rawIndices;
+    final CharClass[] slotClasses;
+
+    /** @return Mask that leaves the input as is. */
+    public static Mask empty() {
+        return new Mask(DEFAULT_MASK_STRING, DEFAULT_MASK_CHARACTER, false);
+    }
+
+    /** @return Mask with the default mask character that enforces the mask length. */
+    public static Mask from(String mask) {
+        return new Mask(mask, DEFAULT_MASK_CHARACTER, DEFAULT_ENFORCE_MAX_LEN);
+    }
+
+    /**
+     * @param mask Mask to be applied on the input, e.g. {@code ####-####-####-####}
+     * @param maskCharacter Mask character, defines an input char placeholder
+     * @param enforceMaskLength If set to true trims excess text outside of mask
+     * @throws IllegalStateException If the mask is null
+     */
+    public Mask(String mask, char maskCharacter, boolean enforceMaskLength) {
+        this(mask, maskCharacter, enforceMaskLength, false, new char[0], new CharClass[0]);
+    }
+
+    Mask(String mask, char maskCharacter, boolean enforceMaskLength, boolean reverseFill,
+            char[] placeholders, CharClass[] placeholderClasses) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        this.mask = mask;
+        this.maskCharacter = maskCharacter;
+        this.enforceMaskLength = enforceMaskLength;
+        this.reverseFill = reverseFill;
+        this.placeholders = placeholders;
+        this.placeholderClasses = placeholderClasses;
+
+        maskChars = mask.toCharArray();
+        rawIndices = new int[maskChars.length + 1];
+        final CharClass[] maskCharClasses = new CharClass[maskChars.length];
+        int slotCount = 0;
+        boolean typed = false;
+        for (int i = 0; i < maskChars.length; i++) {
+            rawIndices[i] = slotCount;
+            maskCharClasses[i] = placeholderClass(maskChars[i]);
+            if (maskCharClasses[i] != null) {
+                typed |= maskCharClasses[i] != CharClass.ANY;
+                slotCount++;
+            }
+        }
+        rawIndices[maskChars.length] = slotCount;
+        slotIndices = new int[slotCount];
+        slotClasses = typed ? new CharClass[slotCount] : null;
+        for (int i = 0, slot = 0; slot < slotCount; i++) {
+            if (maskCharClasses[i] != null) {
+                if (typed) {
+                    slotClasses[slot] = maskCharClasses[i];
+                }
+                slotIndices[slot++] = i;
+            }
+        }
+    }
+
+    /** @return Class of the placeholder {@code c}, or null if {@code c} is a literal */
+    CharClass placeholderClass(char c) {
+        if (c == maskCharacter) {
+            return CharClass.ANY;
+        }
+        for (int i = 0; i < placeholders.length; i++) {
+            if (placeholders[i] == c) {
+                return placeholderClasses[i];
+            }
+        }
+        return null;
+    }
+
+    public String getMask() {
+        return mask;
+    }
+
+    public char getMaskCharacter() {
+        return maskCharacter;
+    }
+
+    public boolean isMaskLengthEnforced() {
+        return enforceMaskLength;
+    }
+
+    /** @return True if the placeholders are filled from right to left */
+    public boolean isReverseFill() {
+        return reverseFill;
+    }
+
+    /** @return Number of placeholders (mask characters) in the mask. */
+    public int slotCount() {
+        return slotIndices.length;
+    }
+
+    /** @return Class of characters accepted by the placeholder at {@code slot}, between 0 and the slot count */
+    public CharClass slotClass(int slot) {
+        if (slot < 0 || slot >= slotIndices.length) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " of " + slotIndices.length);
+        }
+        return slotClasses == null ? CharClass.ANY : slotClasses[slot];
+    }
+
+    /**
+     * @param slot Index of a slot, or past the slots for the input beyond the mask
+     * @return True if {@code c} may be put in {@code slot}
+     */
+    boolean accepts(int slot, char c) {
+        return slotClasses == null || slot >= slotClasses.length || slotClasses[slot].accepts(c);
+    }
+
+    /** @return True if the mask character at {@code maskIndex} is a placeholder */
+    boolean isSlot(int maskIndex) {
+        return rawIndices[maskIndex + 1] != rawIndices[maskIndex];
+    }
+
+    /**
+     * @param maskedIndex Index in a masked text
+     * @return Index in the raw input of the first character at or after {@code maskedIndex}. Past the end of the
+     * mask every masked character is a raw one.
+     */
+    int rawIndexAt(int maskedIndex) {
+        return maskedIndex <= maskChars.length
+                ? rawIndices[maskedIndex]
+                : slotIndices.length + maskedIndex - maskChars.length;
+    }
+
+    /**
+     * @param maskedLength Length of a masked text
+     * @return Number of raw characters in a masked text of {@code maskedLength}. For a reverse-fill mask the
+     * text is aligned with the end of the mask.
+     */
+    int rawCountOf(int maskedLength) {
+        if (!reverseFill) {
+            return rawIndexAt(maskedLength);
+        }
+        return maskedLength <= maskChars.length
+                ? slotIndices.length - rawIndices[maskChars.length - maskedLength]
+                : slotIndices.length + maskedLength - maskChars.length;
+    }
+
+    /**
+     * @param rawCount Number of raw characters
+     * @return Index in a masked text right after the raw character at {@code rawCount - 1}, 0 if there is none.
+     * Inverse of {@link #rawIndexAt(int)} for positions that follow an input character.
+     */
+    int maskedIndexAfter(int rawCount) {
+        if (rawCount == 0) {
+            return 0;
+        }
+        return rawCount <= slotIndices.length
+                ? slotIndices[rawCount - 1] + 1
+                : maskChars.length + rawCount - slotIndices.length;
+    }
+
+    /**
+     * Same as {@link #rawIndexAt(int)} for either fill direction.
+     *
+     * @param maskedIndex Index in a masked text of {@code maskedLength} characters that holds {@code rawLength}
+     * raw characters
+     * @return Number of raw characters before {@code maskedIndex}
+     */
+    int rawIndexAt(int maskedIndex, int maskedLength, int rawLength) {
+        return reverseFill ? rawLength - rawCountOf(maskedLength - maskedIndex) : rawIndexAt(maskedIndex);
+    }
+
+    /**
+     * Cursor position after {@code rawCount} raw characters, for either fill direction. A reverse-filled text
+     * is aligned with the end of the mask, so the cursor is put right before the next raw character instead.
+     *
+     * @param maskedLength Length of a masked text that holds {@code rawLength} raw characters
+     * @return Index in the masked text, at most {@code maskedLength}
+     */
+    int selectionAfter(int rawCount, int maskedLength, int rawLength) {
+        if (!reverseFill) {
+            return Math.min(maskedIndexAfter(rawCount), maskedLength);
+        }
+        final int rawAfter = rawLength - rawCount;
+        if (rawAfter <= 0) {
+            return maskedLength;
+        }
+        return rawAfter <= slotIndices.length
+                ? slotIndices[slotIndices.length - rawAfter] - (maskChars.length - maskedLength)
+                : rawCount;
+    }
+
+    /**
+     * @param maskIndex Index in the mask, between 0 and the mask length inclusive
+     * @return Index of the first slot at or after {@code maskIndex}, or the mask length if there is none.
+     */
+    int nextSlotIndex(int maskIndex) {
+        final int rawIndex = rawIndices[maskIndex];
+        return rawIndex < slotIndices.length ? slotIndices[rawIndex] : maskChars.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        Mask mask1 = (Mask) o;
+
+        if (maskCharacter != mask1.maskCharacter) { return false; }
+        if (enforceMaskLength != mask1.enforceMaskLength) { return false; }
+        if (reverseFill != mask1.reverseFill) { return false; }
+        if (!Arrays.equals(slotIndices, mask1.slotIndices)) { return false; }
+        if (!Arrays.equals(slotClasses, mask1.slotClasses)) { return false; }
+        return mask.equals(mask1.mask);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mask.hashCode();
+        result = 31 * result + (int) maskCharacter;
+        result = 31 * result + (enforceMaskLength ? 1 : 0);
+        result = 31 * result + (reverseFill ? 1 : 0);
+        result = 31 * result + Arrays.hashCode(slotClasses);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" +
+                "mask=" + mask + ", " +
+                "maskCharacter=" + maskCharacter + ", " +
+                "enforceMaskLength=" + enforceMaskLength + ", " +
+                "reverseFill=" + reverseFill + "]";
+    }
+
+    public static class Builder {
+
+        private String mask;
+        private char maskCharacter = DEFAULT_MASK_CHARACTER;
+        private boolean enforceMaskLength = DEFAULT_ENFORCE_MAX_LEN;
+        private boolean reverseFill;
+        private char[] placeholders = new char[0];
+        private CharClass[] placeholderClasses = new CharClass[0];
+
+        public Builder() {
+        }
+
+        public Builder(Mask mask) {
+            this.mask = mask.mask;
+            this.maskCharacter = mask.maskCharacter;
+            this.enforceMaskLength = mask.enforceMaskLength;
+            this.reverseFill = mask.reverseFill;
+            this.placeholders = mask.placeholders;
+            this.placeholderClasses = mask.placeholderClasses;
+        }
+
+        public Builder setMask(String mask) {
+            this.mask = mask;
+            return this;
+        }
+
+        public Builder setMaskCharacter(char maskCharacter) {
+            this.maskCharacter = maskCharacter;
+            return this;
+        }
+
+        public Builder setEnforceMaskLength(boolean enforceMaskLength) {
+            this.enforceMaskLength = enforceMaskLength;
+            return this;
+        }
+
+        /** If set to true fills the placeholders from right to left, e.g. for amounts. */
+        public Builder setReverseFill(boolean reverseFill) {
+            this.reverseFill = reverseFill;
+            return this;
+        }
+
+        /**
+         * Defines a placeholder in addition to the mask character that accepts only {@code charClass}
+         * characters, e.g. {@code '0'} for {@link CharClass#DIGIT}. Replaces a previous definition of the
+         * same placeholder. The mask character always accepts any character.
+         */
+        public Builder addPlaceholder(char placeholder, CharClass charClass) {
+            if (charClass == null) {
+                throw new IllegalStateException("Placeholder class not defined!");
+            }
+            int i = 0;
+            while (i < placeholders.length && placeholders[i] != placeholder) { i++; }
+            if (i == placeholders.length) {
+                placeholders = Arrays.copyOf(placeholders, i + 1);
+                placeholderClasses = Arrays.copyOf(placeholderClasses, i + 1);
+            } else {
+                placeholderClasses = placeholderClasses.clone();
+            }
+            placeholders[i] = placeholder;
+            placeholderClasses[i] = charClass;
+            return this;
+        }
+
+        /** @return True if placeholders other than the mask character have been added */
+        boolean hasPlaceholders() {
+            return placeholders.length != 0;
+        }
+
+        public Mask build() {
+            return new Mask(mask, maskCharacter, enforceMaskLength, reverseFill, placeholders, placeholderClasses);
+        }
+
+        /**
+         * Builds a mask of variable length from a mask with optional groups and repetitions.
+         *
+         * @throws IllegalStateException If the mask is null or not a valid variable mask
+         * @see VariableMask
+         */
+        public VariableMask buildVariable() {
+            return new VariableMask(mask, new Mask(DEFAULT_MASK_STRING, maskCharacter, enforceMaskLength,
+                    reverseFill, placeholders, placeholderClasses));
+        }
+
+        /**
+         * Same as {@link #build()} but masks without additional placeholders that fill from left to right are
+         * taken from {@link MaskCache}.
+         */
+        Mask buildShared() {
+            return hasPlaceholders() || reverseFill
+                    ? build()
+                    : MaskCache.obtain(mask, maskCharacter, enforceMaskLength);
+        }
+    }
+}
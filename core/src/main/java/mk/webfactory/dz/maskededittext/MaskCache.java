@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least recently used cache of compiled {@link Mask}s.
+ * <p>
+ * {@link Mask} is immutable so views that use the same mask, e.g. the rows of a list, can share a single
+ * instance together with its slot table instead of compiling it once per view and once per change of
+ * the mask.
+ */
+final class MaskCache {
+
+    static final int DEFAULT_MAX_SIZE = 32;
+
+    private static final MaskCache SHARED = new MaskCache(DEFAULT_MAX_SIZE);
+
+    private final Map<Key, Mask> masks;
+
+    /** @return Shared mask for the given definition, compiled if not cached. */
+    static Mask obtain(String mask, char maskCharacter, boolean enforceMaskLength) {
+        return SHARED.get(mask, maskCharacter, enforceMaskLength);
+    }
+
+    MaskCache(final int maxSize) {
+        masks = new LinkedHashMap<Key, Mask>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Mask> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** @throws IllegalStateException If the mask is null */
+    synchronized Mask get(String mask, char maskCharacter, boolean enforceMaskLength) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        final Key key = new Key(mask, maskCharacter, enforceMaskLength);
+        Mask cached = masks.get(key);
+        if (cached == null) {
+            cached = new Mask(mask, maskCharacter, enforceMaskLength);
+            masks.put(key, cached);
+        }
+        return cached;
+    }
+
+    synchronized int size() {
+        return masks.size();
+    }
+
+    private static final class Key {
+
+        final String mask;
+        final char maskCharacter;
+        final boolean enforceMaskLength;
+
+        Key(String mask, char maskCharacter, boolean enforceMaskLength) {
+            this.mask = mask;
+            this.maskCharacter = maskCharacter;
+            this.enforceMaskLength = enforceMaskLength;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (!(o instanceof Key)) { return false; }
+
+            Key key = (Key) o;
+
+            return maskCharacter == key.maskCharacter
+                    && enforceMaskLength == key.enforceMaskLength
+                    && mask.equals(key.mask);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mask.hashCode();
+            result = 31 * result + (int) maskCharacter;
+            result = 31 * result + (enforceMaskLength ? 1 : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/**
+ * Masks and strips input with a single {@link Mask}, reusing its scratch buffer for every call so that a
+ * call allocates only the returned String, or nothing but the growth of the {@link StringBuilder} it appends to.
+ * <p>
+ * A formatter is not thread-safe, unlike the {@link Mask} it uses. Create one per thread, e.g. with
+ * {@link #perThread(Mask)}, and share the mask:
+ * <pre>
+ * private static final ThreadLocal&lt;MaskFormatter&gt; PHONE = MaskFormatter.perThread(Mask.from("+(###) ###-###"));
+ *
+ * String masked = PHONE.get().format(rawInput);
+ * </pre>
+ */
+public final class MaskFormatter {
+
+    private final Mask mask;
+    private final TextSelectionBuffer buffer = new TextSelectionBuffer();
+
+    /** @return Formatter for the calling thread, created on its first use in the thread. */
+    public static ThreadLocal<MaskFormatter> perThread(final Mask mask) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        return new ThreadLocal<MaskFormatter>() {
+            @Override
+            protected MaskFormatter initialValue() {
+                return new MaskFormatter(mask);
+            }
+        };
+    }
+
+    /** @throws IllegalStateException If the mask is null */
+    public MaskFormatter(Mask mask) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        this.mask = mask;
+    }
+
+    public Mask getMask() {
+        return mask;
+    }
+
+    /**
+     * Same as {@link MaskUtil#setMask(String, Mask)}.
+     *
+     * @return Masked text
+     */
+    public String format(CharSequence rawInput) {
+        buffer.clear();
+        MaskUtil.appendMasked(rawInput, 0, rawInput.length(), mask, 0, buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * Appends {@code rawInput} masked to {@code out}.
+     *
+     * @return {@code out}
+     */
+    public StringBuilder format(CharSequence rawInput, StringBuilder out) {
+        buffer.clear();
+        MaskUtil.appendMasked(rawInput, 0, rawInput.length(), mask, 0, buffer);
+        return out.append(buffer.chars, 0, buffer.length);
+    }
+
+    /**
+     * Same as {@link MaskUtil#stripMask(String, Mask)}.
+     *
+     * @return Raw text
+     */
+    public String strip(CharSequence maskedInput) {
+        buffer.clear();
+        MaskUtil.appendStripped(maskedInput, 0, maskedInput.length(), mask, 0, buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the raw characters of {@code maskedInput} to {@code out}.
+     *
+     * @return {@code out}
+     */
+    public StringBuilder strip(CharSequence maskedInput, StringBuilder out) {
+        buffer.clear();
+        MaskUtil.appendStripped(maskedInput, 0, maskedInput.length(), mask, 0, buffer);
+        return out.append(buffer.chars, 0, buffer.length);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/**
+ * Immutable set of candidate masks selected by a prefix of the raw input, e.g. a card number field that
+ * switches between {@code #### ###### #####} for numbers starting with {@code 34} or {@code 37} and
+ * {@code #### #### #### ####} for all others.
+ * <p>
+ * The prefixes are compiled into a trie so that {@link #select(CharSequence)} only looks at as many raw
+ * characters as the longest matching prefix has, no matter how many masks there are. The mask of the longest
+ * prefix of the raw input wins, the default mask is used if no prefix matches. The candidates can also be
+ * {@link VariableMask}s, the fixed mask is then selected by the length of the raw input as well.
+ * <pre>
+ * MaskSelector cards = new MaskSelector.Builder(Mask.from("#### #### #### ####"))
+ *         .add("34", Mask.from("#### ###### #####"))
+ *         .add("37", Mask.from("#### ###### #####"))
+ *         .build();
+ * </pre>
+ */
+public final class MaskSelector {
+
+    private final VariableMask defaultMask;
+    private final Node root;
+
+    private MaskSelector(Builder builder) {
+        this.defaultMask = builder.defaultMask;
+        this.root = builder.root;
+    }
+
+    /** @return Default mask for an empty raw input */
+    public Mask getDefaultMask() {
+        return defaultMask.forRawLength(0);
+    }
+
+    /** @return Mask of the longest prefix of {@code rawInput}, or the default mask if no prefix matches. */
+    public Mask select(CharSequence rawInput) {
+        VariableMask selected = defaultMask;
+        Node node = root;
+        for (int i = 0, length = rawInput.length(); i < length; i++) {
+            node = node.child(rawInput.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.mask != null) {
+                selected = node.mask;
+            }
+        }
+        return selected.forRawLength(rawInput.length());
+    }
+
+    /** Trie node, the children are kept in insertion order and looked up linearly. */
+    private static final class Node {
+
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        VariableMask mask;
+
+        Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char key) {
+            final Node child = new Node();
+            final int count = keys.length;
+            final char[] newKeys = new char[count + 1];
+            final Node[] newChildren = new Node[count + 1];
+            System.arraycopy(keys, 0, newKeys, 0, count);
+            System.arraycopy(children, 0, newChildren, 0, count);
+            newKeys[count] = key;
+            newChildren[count] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+
+    public static class Builder {
+
+        private final VariableMask defaultMask;
+        private Node root = new Node();
+
+        /** @throws IllegalStateException If the default mask is null */
+        public Builder(Mask defaultMask) {
+            this(defaultMask != null ? new VariableMask(defaultMask) : null);
+        }
+
+        /** @throws IllegalStateException If the default mask is null */
+        public Builder(VariableMask defaultMask) {
+            if (defaultMask == null) {
+                throw new IllegalStateException("Mask not defined!");
+            }
+            this.defaultMask = defaultMask;
+        }
+
+        /**
+         * Selects {@code mask} for raw input starting with {@code prefix}.
+         *
+         * @throws IllegalStateException If the prefix or the mask is null, the prefix already has a mask or
+         * the selector has been built
+         */
+        public Builder add(String prefix, Mask mask) {
+            return add(prefix, mask != null ? new VariableMask(mask) : null);
+        }
+
+        /**
+         * Selects {@code mask} for raw input starting with {@code prefix}.
+         *
+         * @throws IllegalStateException If the prefix or the mask is null, the prefix already has a mask or
+         * the selector has been built
+         */
+        public Builder add(String prefix, VariableMask mask) {
+            if (root == null) {
+                throw new IllegalStateException("MaskSelector already built");
+            }
+            if (prefix == null || mask == null) {
+                throw new IllegalStateException("Prefix or mask not defined!");
+            }
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                final char key = prefix.charAt(i);
+                final Node child = node.child(key);
+                node = child != null ? child : node.addChild(key);
+            }
+            if (node.mask != null) {
+                throw new IllegalStateException("Prefix '" + prefix + "' already has a mask");
+            }
+            node.mask = mask;
+            return this;
+        }
+
+        /** @throws IllegalStateException If the selector has already been built */
+        public MaskSelector build() {
+            if (root == null) {
+                throw new IllegalStateException("MaskSelector already built");
+            }
+            final MaskSelector maskSelector = new MaskSelector(this);
+            root = null;
+            return maskSelector;
+        }
+    }
+}
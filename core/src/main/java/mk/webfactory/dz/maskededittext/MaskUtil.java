@@ -0,0 +1,702 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.List;
+
+/**
+ * Masking operations. All of them are stateless and can be used from any thread with a shared {@link Mask}.
+ */
+public final class MaskUtil {
+
+    /**
+     * @param rawInput Input text
+     * @param mask Mask to apply
+     * @return Masked text
+     */
+    public static String setMask(final String rawInput, final Mask mask) {
+        return setMask(rawInput, mask, 0);
+    }
+
+    /**
+     * @param rawInput Input text
+     * @param mask Mask of variable length, the fixed mask is selected by the length of the input
+     * @return Masked text
+     */
+    public static String setMask(final String rawInput, final VariableMask mask) {
+        return setMask(rawInput, mask.forRawLength(rawInput.length()), 0);
+    }
+
+    /**
+     * Same as {@link #setMask(String, Mask)} applied on the part of the mask starting at {@code maskOffset}.
+     *
+     * @param maskOffset Index in the mask from which masking starts, clamped to the mask length
+     */
+    static String setMask(final CharSequence rawInput, final Mask mask, int maskOffset) {
+        final TextSelectionBuffer out = new TextSelectionBuffer(mask.maskChars.length + rawInput.length());
+        appendMasked(rawInput, 0, rawInput.length(), mask, maskOffset, out);
+        return out.toString();
+    }
+
+    /**
+     * Masks {@code rawInput[start, end)} with the part of the mask starting at {@code maskOffset} and appends
+     * the result to {@code out}.
+     */
+    static void appendMasked(final CharSequence rawInput, final int start, final int end,
+            final Mask mask, final int maskOffset, final TextSelectionBuffer out) {
+        out.ensureCapacity(out.length + maxMaskedLength(mask, maskOffset, end - start));
+        out.length = writeMasked(rawInput, start, end, mask, maskOffset, out.chars, out.length);
+    }
+
+    /**
+     * Masks {@code rawInput[start, end)} with the part of the mask starting at {@code maskOffset} and writes
+     * the result to {@code out} from {@code outPos}. {@code out} must have room for
+     * {@link #maxMaskedLength(Mask, int, int)} characters. A reverse-fill mask is always applied as a whole,
+     * ignoring {@code maskOffset}.
+     *
+     * @return Index in {@code out} after the last written character
+     */
+    static int writeMasked(final CharSequence rawInput, final int start, final int end,
+            final Mask mask, int maskOffset, final char[] out, final int outPos) {
+        if (mask.reverseFill) {
+            return writeMaskedReverse(rawInput, start, end, mask, out, outPos);
+        }
+        final char[] maskChars = mask.maskChars;
+        final int[] slotIndices = mask.slotIndices;
+        maskOffset = Math.min(maskOffset, maskChars.length);
+        final int firstSlot = mask.rawIndices[maskOffset];
+        final CharClass[] slotClasses = mask.slotClasses;
+        int pos = outPos;
+        int inputPos;
+        int maskPos = maskOffset;
+        //literal runs are mostly a character or two, too short for System.arraycopy to pay off
+        if (slotClasses == null) {
+            for (inputPos = start; inputPos < end && firstSlot + inputPos - start < slotIndices.length; inputPos++) {
+                final int slotIndex = slotIndices[firstSlot + inputPos - start];
+                while (maskPos < slotIndex) {
+                    out[pos++] = maskChars[maskPos++];
+                }
+                out[pos++] = rawInput.charAt(inputPos);
+                maskPos++;
+            }
+        } else {
+            //characters a slot does not accept are dropped
+            int slot = firstSlot;
+            for (inputPos = start; inputPos < end && slot < slotIndices.length; inputPos++) {
+                final char c = rawInput.charAt(inputPos);
+                if (!slotClasses[slot].accepts(c)) {
+                    continue;
+                }
+                final int slotIndex = slotIndices[slot++];
+                while (maskPos < slotIndex) {
+                    out[pos++] = maskChars[maskPos++];
+                }
+                out[pos++] = c;
+                maskPos++;
+            }
+        }
+        final int nextSlotIndex = mask.nextSlotIndex(maskPos);
+        while (maskPos < nextSlotIndex) {
+            out[pos++] = maskChars[maskPos++];
+        }
+        for (; inputPos < end; inputPos++) {
+            out[pos++] = rawInput.charAt(inputPos);
+        }
+        if (mask.enforceMaskLength && pos - outPos > maskChars.length - maskOffset) {
+            pos = outPos + maskChars.length - maskOffset;
+        }
+        return pos;
+    }
+
+    /**
+     * Right to left variant of {@link #writeMasked(CharSequence, int, int, Mask, int, char[], int)}. The masked
+     * text starts with the first filled placeholder or, if the input does not fit, with the excess input followed
+     * by the whole mask.
+     */
+    private static int writeMaskedReverse(final CharSequence rawInput, final int start, int end,
+            final Mask mask, final char[] out, final int outPos) {
+        final char[] maskChars = mask.maskChars;
+        final int[] slotIndices = mask.slotIndices;
+        if (mask.enforceMaskLength && end - start > slotIndices.length) {
+            end = start + slotIndices.length;
+        }
+        if (mask.slotClasses != null) {
+            return writeMaskedReverseTyped(rawInput, start, end, mask, out, outPos);
+        }
+        int pos = outPos;
+        int inputPos = start;
+        while (end - inputPos > slotIndices.length) {
+            out[pos++] = rawInput.charAt(inputPos++);
+        }
+        if (inputPos == end && pos == outPos) {
+            return pos;
+        }
+        int slot = slotIndices.length - (end - inputPos);
+        for (int maskPos = pos > outPos ? 0 : slotIndices[slot]; maskPos < maskChars.length; maskPos++) {
+            if (slot < slotIndices.length && slotIndices[slot] == maskPos) {
+                out[pos++] = rawInput.charAt(inputPos++);
+                slot++;
+            } else {
+                out[pos++] = maskChars[maskPos];
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Which characters a slot rejects is only known going from the last slot to the first, so the masked text is
+     * written backwards at the end of the room in {@code out} and moved to {@code outPos} afterwards.
+     */
+    private static int writeMaskedReverseTyped(final CharSequence rawInput, final int start, final int end,
+            final Mask mask, final char[] out, final int outPos) {
+        final char[] maskChars = mask.maskChars;
+        final int[] slotIndices = mask.slotIndices;
+        final CharClass[] slotClasses = mask.slotClasses;
+        final int outEnd = outPos + maxMaskedLength(mask, 0, end - start);
+        int pos = outEnd;
+        int textStart = outEnd;
+        int inputPos = end;
+        int slot = slotIndices.length - 1;
+        int maskPos = maskChars.length - 1;
+        while (inputPos > start && maskPos >= 0) {
+            if (slot >= 0 && slotIndices[slot] == maskPos) {
+                final char c = rawInput.charAt(--inputPos);
+                if (!slotClasses[slot].accepts(c)) {
+                    continue;
+                }
+                out[--pos] = c;
+                textStart = pos;
+                slot--;
+            } else {
+                out[--pos] = maskChars[maskPos];
+            }
+            maskPos--;
+        }
+        if (inputPos > start) {
+            while (inputPos > start) {
+                out[--pos] = rawInput.charAt(--inputPos);
+            }
+            textStart = pos;
+        }
+        System.arraycopy(out, textStart, out, outPos, outEnd - textStart);
+        return outPos + outEnd - textStart;
+    }
+
+    /**
+     * @return Maximum length of {@code rawInputLength} characters masked with the part of the mask starting at
+     * {@code maskOffset}
+     */
+    static int maxMaskedLength(final Mask mask, final int maskOffset, final int rawInputLength) {
+        return mask.maskChars.length - Math.min(maskOffset, mask.maskChars.length) + rawInputLength;
+    }
+
+    /**
+     * Masks every input with the same mask and writes the results one after another to {@code out}.
+     * Nothing is allocated per input, so this is the preferred way to mask large data sets.
+     *
+     * @param rawInputs Inputs to mask
+     * @param out Output buffer with room for {@link #maskedLengthBound(Mask, int, int)} characters
+     * @param ends Receives the end index in {@code out} of every masked input. The i-th result is
+     * {@code out[ends[i - 1], ends[i])}, the first one starts at 0.
+     * @return Number of characters written to {@code out}
+     * @throws IndexOutOfBoundsException If {@code out} or {@code ends} is too small. The inputs before the one
+     * that did not fit are written.
+     */
+    public static int setMask(final List<? extends CharSequence> rawInputs, final Mask mask,
+            final char[] out, final int[] ends) {
+        final int count = rawInputs.size();
+        checkEndsLength(ends, count);
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            final CharSequence rawInput = rawInputs.get(i);
+            checkOutLength(out, pos + maxMaskedLength(mask, 0, rawInput.length()), i);
+            pos = writeMasked(rawInput, 0, rawInput.length(), mask, 0, out, pos);
+            ends[i] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Same as {@link #setMask(List, Mask, char[], int[])} for inputs packed one after another in a single
+     * array, the i-th input being {@code rawInputs[inputEnds[i - 1], inputEnds[i])}.
+     */
+    public static int setMask(final char[] rawInputs, final int[] inputEnds, final int count, final Mask mask,
+            final char[] out, final int[] ends) {
+        checkEndsLength(ends, count);
+        final CharSequence input = TextSelectionBuffer.wrap(rawInputs);
+        int pos = 0;
+        for (int i = 0, start = 0; i < count; start = inputEnds[i++]) {
+            checkOutLength(out, pos + maxMaskedLength(mask, 0, inputEnds[i] - start), i);
+            pos = writeMasked(input, start, inputEnds[i], mask, 0, out, pos);
+            ends[i] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * @return Size of the output buffer that fits {@code count} inputs of {@code totalInputLength} characters
+     * masked with {@code mask}
+     */
+    public static int maskedLengthBound(final Mask mask, final int count, final int totalInputLength) {
+        return count * mask.maskChars.length + totalInputLength;
+    }
+
+    /**
+     * Removes the non masked characters from the masked input and returns raw text.
+     *
+     * @return Raw text not respecting initial input size
+     */
+    public static String stripMask(final String maskedInput, final Mask mask) {
+        return stripMask(maskedInput, mask, 0);
+    }
+
+    /**
+     * Same as {@link #stripMask(String, Mask)} for input masked with the part of the mask starting at
+     * {@code maskOffset}.
+     *
+     * @param maskOffset Index in the mask where the masked input starts, clamped to the mask length
+     */
+    static String stripMask(final CharSequence maskedInput, final Mask mask, int maskOffset) {
+        final TextSelectionBuffer out = new TextSelectionBuffer(maskedInput.length());
+        appendStripped(maskedInput, 0, maskedInput.length(), mask, maskOffset, out);
+        return out.toString();
+    }
+
+    /**
+     * Strips {@code maskedInput[start, end)}, masked with the part of the mask starting at {@code maskOffset},
+     * and appends the raw characters to {@code out}.
+     */
+    static void appendStripped(final CharSequence maskedInput, final int start, final int end,
+            final Mask mask, final int maskOffset, final TextSelectionBuffer out) {
+        out.ensureCapacity(out.length + end - start);
+        out.length = writeStripped(maskedInput, start, end, mask, maskOffset, out.chars, out.length);
+    }
+
+    /**
+     * Strips {@code maskedInput[start, end)}, masked with the part of the mask starting at {@code maskOffset},
+     * and writes the raw characters to {@code out} from {@code outPos}. {@code out} must have room for
+     * {@code end - start} characters.
+     *
+     * @return Index in {@code out} after the last written character
+     */
+    static int writeStripped(final CharSequence maskedInput, final int start, final int end,
+            final Mask mask, int maskOffset, final char[] out, final int outPos) {
+        if (mask.reverseFill) {
+            return writeStrippedReverse(maskedInput, start, end, mask, out, outPos);
+        }
+        final int[] slotIndices = mask.slotIndices;
+        maskOffset = Math.min(maskOffset, mask.maskChars.length);
+        final int inputLength = end - start;
+        final int maskLength = mask.maskChars.length - maskOffset;
+        int pos = outPos;
+        for (int slot = mask.rawIndices[maskOffset];
+                slot < slotIndices.length && slotIndices[slot] - maskOffset < inputLength;
+                slot++) {
+            out[pos++] = maskedInput.charAt(start + slotIndices[slot] - maskOffset);
+        }
+        for (int i = start + maskLength; i < end; i++) {
+            out[pos++] = maskedInput.charAt(i);
+        }
+        return pos;
+    }
+
+    /**
+     * Right to left variant of {@link #writeStripped(CharSequence, int, int, Mask, int, char[], int)}, the
+     * masked input is aligned with the end of the mask.
+     */
+    private static int writeStrippedReverse(final CharSequence maskedInput, final int start, final int end,
+            final Mask mask, final char[] out, final int outPos) {
+        final int maskOffset = mask.maskChars.length - (end - start);
+        int pos = outPos;
+        int i = start;
+        for (; i < end && i - start + maskOffset < 0; i++) {
+            out[pos++] = maskedInput.charAt(i);
+        }
+        for (; i < end; i++) {
+            if (mask.isSlot(i - start + maskOffset)) {
+                out[pos++] = maskedInput.charAt(i);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Strips every input with the same mask and writes the raw texts one after another to {@code out}.
+     * Nothing is allocated per input, so this is the preferred way to strip large data sets.
+     *
+     * @param maskedInputs Inputs to strip
+     * @param out Output buffer with room for the total length of the inputs
+     * @param ends Receives the end index in {@code out} of every raw text. The i-th result is
+     * {@code out[ends[i - 1], ends[i])}, the first one starts at 0.
+     * @return Number of characters written to {@code out}
+     * @throws IndexOutOfBoundsException If {@code out} or {@code ends} is too small. The inputs before the one
+     * that did not fit are written.
+     */
+    public static int stripMask(final List<? extends CharSequence> maskedInputs, final Mask mask,
+            final char[] out, final int[] ends) {
+        final int count = maskedInputs.size();
+        checkEndsLength(ends, count);
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            final CharSequence maskedInput = maskedInputs.get(i);
+            checkOutLength(out, pos + maskedInput.length(), i);
+            pos = writeStripped(maskedInput, 0, maskedInput.length(), mask, 0, out, pos);
+            ends[i] = pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Same as {@link #stripMask(List, Mask, char[], int[])} for inputs packed one after another in a single
+     * array, the i-th input being {@code maskedInputs[inputEnds[i - 1], inputEnds[i])}.
+     */
+    public static int stripMask(final char[] maskedInputs, final int[] inputEnds, final int count, final Mask mask,
+            final char[] out, final int[] ends) {
+        checkEndsLength(ends, count);
+        final CharSequence input = TextSelectionBuffer.wrap(maskedInputs);
+        int pos = 0;
+        for (int i = 0, start = 0; i < count; start = inputEnds[i++]) {
+            checkOutLength(out, pos + inputEnds[i] - start, i);
+            pos = writeStripped(input, start, inputEnds[i], mask, 0, out, pos);
+            ends[i] = pos;
+        }
+        return pos;
+    }
+
+    private static void checkEndsLength(final int[] ends, final int count) {
+        if (ends.length < count) {
+            throw new IndexOutOfBoundsException("Ends array of length " + ends.length + " for " + count + " inputs");
+        }
+    }
+
+    private static void checkOutLength(final char[] out, final int requiredLength, final int inputIndex) {
+        if (out.length < requiredLength) {
+            throw new IndexOutOfBoundsException("Output buffer too small for input at index " + inputIndex);
+        }
+    }
+
+    /**
+     * Re-masks a text that has been changed but only at one place with 0 or more characters.
+     * <br />Valid example: addition/removal of one or more characters at index n;
+     * <br />Valid example: no change made;
+     * <br />Invalid example: change at index n and another change at index m;
+     *
+     * <p><pre>
+     *  ├──────sub1──────┼────change────┼S┼───sub2───┤
+     * </pre>
+     * {@code Where sub1 + sub2 = prevTextMasked; and S is selection index;}
+     *
+     * @param prevTextMasked Masked text before the change
+     * @param nextTextWithChanges The prevTextMasked with a potential one place change
+     * @return Masked text with the change and cursor index (selection)
+     */
+    public static TextSelectionWrapper reMaskSubsequentInput(String prevTextMasked, String nextTextWithChanges, Mask mask) {
+        final TextSelectionBuffer textMasked = new TextSelectionBuffer(nextTextWithChanges.length());
+        final TextSelectionBuffer rawInput = new TextSelectionBuffer(nextTextWithChanges.length());
+        textMasked.set(prevTextMasked);
+        appendStripped(prevTextMasked, 0, prevTextMasked.length(), mask, 0, rawInput);
+        reMaskSubsequentInput(textMasked, rawInput, nextTextWithChanges,
+                commonPrefixLength(prevTextMasked, nextTextWithChanges), mask);
+        return new TextSelectionWrapper(textMasked.toString(), textMasked.selection);
+    }
+
+    /**
+     * Incremental, allocation free variant of {@link #reMaskSubsequentInput(String, String, Mask)}.
+     * <p>The change is applied on {@code rawInput} at the raw index of the edit point and only the text from
+     * that point forward is masked again. The common prefix of {@code textMasked} is kept as is.
+     *
+     * @param textMasked Masked text before the change, updated in place to the masked text with the change and
+     * the cursor index (selection)
+     * @param rawInput The raw input of {@code textMasked}, updated in place to the raw input with the change
+     * @param nextTextWithChanges The textMasked with a potential one place change
+     * @param sub1Length Length of the common prefix of textMasked and nextTextWithChanges
+     * @return Index from which textMasked has been masked again
+     */
+    static int reMaskSubsequentInput(TextSelectionBuffer textMasked, TextSelectionBuffer rawInput,
+            CharSequence nextTextWithChanges, int sub1Length, Mask mask) {
+        if (mask.reverseFill) {
+            return reMaskReverse(textMasked, rawInput, nextTextWithChanges, sub1Length, mask);
+        }
+        final int lenPrev = textMasked.length();
+        final int lenAfter = nextTextWithChanges.length();
+        int kPrev = lenPrev;
+        int kAfter = lenAfter;
+        while (kPrev > sub1Length && kAfter > sub1Length
+                && textMasked.charAt(kPrev - 1) == nextTextWithChanges.charAt(kAfter - 1)) {
+            kPrev--;
+            kAfter--;
+        }
+        int changeLength = kAfter - sub1Length;
+
+        //one non mask char deletion
+        final int deletedChars = kPrev - sub1Length;
+        int prevSlot;
+        if (deletedChars == 1
+                && mask.maskChars.length > sub1Length
+                && !mask.isSlot(sub1Length)
+                && 0 != (prevSlot = mask.rawIndices[sub1Length])) {
+            sub1Length = mask.slotIndices[prevSlot - 1];
+        }
+
+        final int rawStart = mask.rawIndexAt(sub1Length);
+        rawInput.replace(rawStart, mask.rawIndexAt(kPrev), nextTextWithChanges, kAfter - changeLength, kAfter);
+        if (mask.slotClasses != null) {
+            changeLength = filterRawInput(rawInput, rawStart, rawStart + changeLength, mask) - rawStart;
+        }
+
+        textMasked.setLength(sub1Length);
+        appendMasked(rawInput, rawStart, rawStart + changeLength, mask, sub1Length, textMasked);
+
+        final int selection = textMasked.length();
+
+        appendMasked(rawInput, rawStart + changeLength, rawInput.length(), mask, selection, textMasked);
+
+        if (mask.enforceMaskLength && textMasked.length() > mask.maskChars.length) {
+            textMasked.setLength(mask.maskChars.length);
+        }
+        rawInput.setLength(mask.rawIndexAt(textMasked.length()));
+        textMasked.selection = selection;
+        return sub1Length;
+    }
+
+    /**
+     * Reverse-fill variant of {@link #reMaskSubsequentInput(TextSelectionBuffer, TextSelectionBuffer,
+     * CharSequence, int, Mask)}. Every raw character moves to another slot when one is added or removed, so
+     * the change is applied on the raw input in place, which is amortized O(1) for the usual appends at the
+     * end, and the text is masked again as a whole.
+     *
+     * @return 0, the index from which textMasked has been masked again
+     */
+    private static int reMaskReverse(TextSelectionBuffer textMasked, TextSelectionBuffer rawInput,
+            CharSequence nextTextWithChanges, int sub1Length, Mask mask) {
+        final int lenPrev = textMasked.length();
+        int kPrev = lenPrev;
+        int kAfter = nextTextWithChanges.length();
+        while (kPrev > sub1Length && kAfter > sub1Length
+                && textMasked.charAt(kPrev - 1) == nextTextWithChanges.charAt(kAfter - 1)) {
+            kPrev--;
+            kAfter--;
+        }
+        final int rawLength = rawInput.length();
+        int rawStart = rawLength - mask.rawCountOf(lenPrev - sub1Length);
+        final int rawEnd = rawLength - mask.rawCountOf(lenPrev - kPrev);
+
+        //one non mask char deletion removes the raw character before it
+        if (kPrev - sub1Length == 1 && kAfter == sub1Length && rawStart == rawEnd && rawStart > 0) {
+            rawStart--;
+        }
+        rawInput.replace(rawStart, rawEnd, nextTextWithChanges, sub1Length, kAfter);
+
+        final int slotCount = mask.slotIndices.length;
+        if (mask.enforceMaskLength && rawInput.length() > slotCount) {
+            rawInput.setLength(slotCount);
+        }
+        int rawAfterSelection = Math.max(0, rawInput.length() - rawStart - kAfter + sub1Length);
+        if (mask.slotClasses != null) {
+            rawAfterSelection = filterRawInputReverse(rawInput, rawInput.length() - rawAfterSelection, mask);
+        }
+
+        textMasked.clear();
+        appendMasked(rawInput, 0, rawInput.length(), mask, 0, textMasked);
+        textMasked.selection = mask.selectionAfter(rawInput.length() - rawAfterSelection, textMasked.length(),
+                rawInput.length());
+        return 0;
+    }
+
+    /**
+     * Right to left variant of {@link #filterRawInput(TextSelectionBuffer, int, int, Mask)}, the last character
+     * goes in the last slot.
+     *
+     * @param selection Index in {@code rawInput}
+     * @return Number of characters kept at or after {@code selection}
+     */
+    private static int filterRawInputReverse(final TextSelectionBuffer rawInput, final int selection,
+            final Mask mask) {
+        final char[] chars = rawInput.chars;
+        final int length = rawInput.length;
+        int slot = mask.slotIndices.length - 1;
+        int write = length;
+        int keptAfterSelection = 0;
+        for (int read = length - 1; read >= 0; read--) {
+            final char c = chars[read];
+            if (slot < 0 || mask.slotClasses[slot].accepts(c)) {
+                chars[--write] = c;
+                slot--;
+                if (read >= selection) {
+                    keptAfterSelection++;
+                }
+            }
+        }
+        System.arraycopy(chars, write, chars, 0, length - write);
+        rawInput.length = length - write;
+        return keptAfterSelection;
+    }
+
+    /** Drops the characters of {@code rawInput} that the slot they would be masked into does not accept. */
+    static void filterRawInput(final TextSelectionBuffer rawInput, final Mask mask) {
+        if (!mask.reverseFill) {
+            filterRawInput(rawInput, 0, 0, mask);
+            return;
+        }
+        if (mask.enforceMaskLength && rawInput.length() > mask.slotIndices.length) {
+            rawInput.setLength(mask.slotIndices.length);
+        }
+        filterRawInputReverse(rawInput, rawInput.length(), mask);
+    }
+
+    /**
+     * Drops the characters of {@code rawInput} from {@code start} on that the slot they would be masked into
+     * does not accept. Every character shifts to the slot of the character it follows, so not only the change
+     * is checked but also the input after it.
+     *
+     * @param changeEnd End of the changed range of {@code rawInput}
+     * @return End of the changed range after the rejected characters have been dropped
+     */
+    static int filterRawInput(final TextSelectionBuffer rawInput, final int start, final int changeEnd,
+            final Mask mask) {
+        final char[] chars = rawInput.chars;
+        final int length = rawInput.length;
+        final int slotCount = mask.slotIndices.length;
+        int filteredChangeEnd = start;
+        int write = start;
+        for (int read = start; read < length; read++) {
+            if (write == read && write >= slotCount) {
+                //nothing dropped and past the typed slots, the rest stays as is
+                return changeEnd;
+            }
+            final char c = chars[read];
+            if (mask.accepts(write, c)) {
+                chars[write++] = c;
+            }
+            if (read + 1 == changeEnd) {
+                filteredChangeEnd = write;
+            }
+        }
+        rawInput.length = write;
+        return filteredChangeEnd;
+    }
+
+    /** @return Length of the longest common prefix of both texts. */
+    static int commonPrefixLength(CharSequence first, CharSequence second) {
+        final int length = Math.min(first.length(), second.length());
+        int i = 0;
+        while (i < length && first.charAt(i) == second.charAt(i)) { i++; }
+        return i;
+    }
+
+    /**
+     * Checks to see if an input respects a given mask or mask fragment if input is not long enough.
+     * <p>If mask length is enforced and input exceeds the mask length, false is returned.
+     * <p>
+     * Examples:
+     * <pre>
+     * Given a mask of ###--##
+     * Input of "abc" returns false
+     * Input of "abc-" returns false
+     * Input of "abc--" returns true
+     * Input of "abc--a" returns true
+     * Input of "abc--ab" returns true
+     *
+     * Input of "abc--abEXTRA" returns true if
+     * mask length is not enforced, false otherwise
+     * </pre>
+     * Input with a character in a placeholder that does not accept it is not masked.
+     *
+     * @return true if input has the necessary mask characters.
+     */
+    public static boolean isInputMasked(final CharSequence input, final Mask mask) {
+        return isInputMasked(input, mask, 0);
+    }
+
+    /**
+     * Same as {@link #isInputMasked(CharSequence, Mask)} for input whose characters before {@code fromIndex}
+     * are already known to respect the mask, e.g. the unchanged prefix of a previously masked text.
+     */
+    static boolean isInputMasked(final CharSequence input, final Mask mask, final int fromIndex) {
+        if (mask.reverseFill) {
+            return isInputMaskedReverse(input, mask);
+        }
+        final char[] maskChars = mask.maskChars;
+        final int[] slotIndices = mask.slotIndices;
+        final int inputLength = input.length();
+        if (mask.enforceMaskLength && inputLength > maskChars.length) {
+            return false;
+        }
+        //literals are required up to the first slot that's not filled
+        final int checkedLength = mask.nextSlotIndex(Math.min(inputLength, maskChars.length));
+        if (checkedLength > inputLength) {
+            return false;
+        }
+        for (int slot = mask.rawIndices[Math.min(fromIndex, maskChars.length)], runStart = fromIndex;
+                runStart < checkedLength;
+                slot++) {
+            final int runEnd = slot < slotIndices.length ? slotIndices[slot] : maskChars.length;
+            for (int i = runStart; i < runEnd; i++) {
+                if (maskChars[i] != input.charAt(i)) {
+                    return false;
+                }
+            }
+            if (runEnd < inputLength && !mask.accepts(slot, input.charAt(runEnd))) {
+                return false;
+            }
+            runStart = runEnd + 1;
+        }
+        return true;
+    }
+
+    /** The input is aligned with the end of the mask and has to start with a placeholder. */
+    private static boolean isInputMaskedReverse(final CharSequence input, final Mask mask) {
+        final char[] maskChars = mask.maskChars;
+        final int inputLength = input.length();
+        if (inputLength == 0) {
+            return true;
+        }
+        if (mask.enforceMaskLength && inputLength > maskChars.length) {
+            return false;
+        }
+        final int maskOffset = maskChars.length - inputLength;
+        if (maskOffset >= 0 && !mask.isSlot(maskOffset)) {
+            return false;
+        }
+        for (int i = Math.max(0, -maskOffset); i < inputLength; i++) {
+            final int maskIndex = i + maskOffset;
+            final char c = input.charAt(i);
+            if (mask.isSlot(maskIndex) ? !mask.accepts(mask.rawIndices[maskIndex], c) : c != maskChars[maskIndex]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void ensureMaskContainsMaskCharacter(final String mask, final char maskCharacter) {
+        if (!mask.isEmpty() && mask.indexOf(maskCharacter) == -1) {
+            throw new IllegalStateException("Mask does not contain maskCharacter: '" + maskCharacter + "'");
+        }
+    }
+
+    private MaskUtil() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/**
+ * Mutable, reusable counterpart of {@link TextSelectionWrapper}.
+ * <p>
+ * Backed by a growing {@code char[]} so that the same instance can be reused for every change without
+ * allocating once it has reached the size of the input.
+ */
+final class TextSelectionBuffer implements CharSequence {
+
+    private static final int DEFAULT_CAPACITY = 32;
+
+    char[] chars;
+    int length;
+    int selection;
+
+    TextSelectionBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TextSelectionBuffer(int capacity) {
+        chars = new char[capacity];
+    }
+
+    /** @return Buffer backed by {@code chars}, holding all of them. Changes write through to the array. */
+    static TextSelectionBuffer wrap(char[] chars) {
+        final TextSelectionBuffer buffer = new TextSelectionBuffer(0);
+        buffer.chars = chars;
+        buffer.length = chars.length;
+        return buffer;
+    }
+
+    void clear() {
+        length = 0;
+        selection = 0;
+    }
+
+    void setLength(int length) {
+        ensureCapacity(length);
+        this.length = length;
+    }
+
+    /** Replaces the content of this buffer with {@code text}. */
+    void set(CharSequence text) {
+        length = 0;
+        append(text, 0, text.length());
+    }
+
+    void append(char c) {
+        ensureCapacity(length + 1);
+        chars[length++] = c;
+    }
+
+    void append(char[] source, int start, int end) {
+        ensureCapacity(length + end - start);
+        System.arraycopy(source, start, chars, length, end - start);
+        length += end - start;
+    }
+
+    void append(CharSequence source, int start, int end) {
+        ensureCapacity(length + end - start);
+        for (int i = start; i < end; i++) {
+            chars[length++] = source.charAt(i);
+        }
+    }
+
+    /**
+     * Replaces {@code [start, end)} of this buffer with {@code source[sourceStart, sourceEnd)}, shifting the
+     * characters after {@code end}.
+     */
+    void replace(int start, int end, CharSequence source, int sourceStart, int sourceEnd) {
+        final int newLength = length - (end - start) + (sourceEnd - sourceStart);
+        ensureCapacity(newLength);
+        System.arraycopy(chars, end, chars, start + sourceEnd - sourceStart, length - end);
+        for (int i = sourceStart, j = start; i < sourceEnd; i++, j++) {
+            chars[j] = source.charAt(i);
+        }
+        length = newLength;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > chars.length) {
+            char[] newChars = new char[Math.max(capacity, chars.length * 2)];
+            System.arraycopy(chars, 0, newChars, 0, length);
+            chars = newChars;
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
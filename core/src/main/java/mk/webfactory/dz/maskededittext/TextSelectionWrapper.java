@@ -24,7 +24,8 @@
 
 package mk.webfactory.dz.maskededittext;
 
-final class TextSelectionWrapper {
+/** Immutable masked text together with the cursor index (selection) after a change. */
+public final class TextSelectionWrapper {
 
     final String text;
     final int selection;
@@ -34,6 +35,14 @@ final class TextSelectionWrapper {
         this.selection = selection;
     }
 
+    public String getText() {
+        return text;
+    }
+
+    public int getSelection() {
+        return selection;
+    }
+
     @Override public String toString() {
         return text;
     }
@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mask of variable length, for formats such as phone numbers of 8 to 12 digits or postal codes with an
+ * optional suffix. Built with {@link Mask.Builder#buildVariable()} from a mask with
+ * <ul>
+ * <li>optional groups - {@code #####[-####]}, the group is shown as a whole once there is input for it</li>
+ * <li>bounded repetition of a placeholder - {@code +389 #{8,9}} or {@code ##{4}}</li>
+ * </ul>
+ * {@code \} escapes the next character, e.g. {@code \[} for a literal bracket. Placeholders can not be escaped.
+ * Groups can not be nested, must contain a placeholder and repetition is not supported inside a group.
+ * <p>
+ * The mask is compiled once, on construction, into a table of fixed {@link Mask}s indexed by the length of the
+ * raw input. The optional groups are filled from left to right with the input in excess of the mandatory
+ * placeholders, so selecting the mask for an input is a lookup and masking stays a single pass over the
+ * input with the selected mask. Only the mask with all the groups enforces the mask length, the shorter
+ * ones leave room for the input that selects a longer one.
+ */
+public final class VariableMask {
+
+    private final String mask;
+    private final int minSlotCount;
+    /** For every raw input length up to the maximum slot count, the mask to apply. */
+    private final Mask[] masks;
+
+    /** Fixed mask as a variable one, for code that handles both. */
+    VariableMask(Mask fixed) {
+        this.mask = fixed.mask;
+        this.minSlotCount = fixed.slotCount();
+        this.masks = new Mask[]{fixed};
+    }
+
+    /** @param template Mask definition to use for the fixed masks, except for the mask itself */
+    VariableMask(String mask, Mask template) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        this.mask = mask;
+
+        final List<String> parts = new ArrayList<>();
+        final List<Integer> partSlots = new ArrayList<>();
+        final StringBuilder mandatory = new StringBuilder();
+        int mandatorySlots = 0;
+        StringBuilder group = null;
+        int groupSlots = 0;
+        boolean afterPlaceholder = false;
+        for (int i = 0; i < mask.length(); i++) {
+            char c = mask.charAt(i);
+            final StringBuilder part = group != null ? group : mandatory;
+            if (c == '[' || c == ']') {
+                if ((c == '[') == (group != null)) {
+                    throw new IllegalStateException("Unbalanced or nested optional group at " + i + ": " + mask);
+                }
+                if (c == '[') {
+                    group = new StringBuilder();
+                    groupSlots = 0;
+                } else {
+                    if (groupSlots == 0) {
+                        throw new IllegalStateException("Optional group without a placeholder at " + i + ": " + mask);
+                    }
+                    addPart(parts, partSlots, mandatory, group.toString(), groupSlots);
+                    group = null;
+                }
+                afterPlaceholder = false;
+                continue;
+            }
+            if (c == '{') {
+                final int end = mask.indexOf('}', i);
+                if (!afterPlaceholder || group != null || end == -1) {
+                    throw new IllegalStateException("Repetition must follow a placeholder outside of a group at "
+                            + i + ": " + mask);
+                }
+                final String[] bounds = mask.substring(i + 1, end).split(",", -1);
+                final int min = parseBound(bounds[0], mask);
+                final int max = bounds.length == 1 ? min : parseBound(bounds[1], mask);
+                if (bounds.length > 2 || max < min) {
+                    throw new IllegalStateException("Invalid repetition at " + i + ": " + mask);
+                }
+                final char placeholder = mandatory.charAt(mandatory.length() - 1);
+                mandatory.setLength(mandatory.length() - 1);
+                for (int j = 0; j < min; j++) {
+                    mandatory.append(placeholder);
+                }
+                mandatorySlots += min - 1;
+                for (int j = min; j < max; j++) {
+                    addPart(parts, partSlots, mandatory, String.valueOf(placeholder), 1);
+                }
+                afterPlaceholder = false;
+                i = end;
+                continue;
+            }
+            if (c == '\\') {
+                if (++i == mask.length()) {
+                    throw new IllegalStateException("Nothing to escape at the end of: " + mask);
+                }
+                c = mask.charAt(i);
+                if (template.placeholderClass(c) != null) {
+                    throw new IllegalStateException("Placeholder can not be escaped at " + i + ": " + mask);
+                }
+            }
+            part.append(c);
+            afterPlaceholder = template.placeholderClass(c) != null;
+            if (afterPlaceholder) {
+                if (group != null) {
+                    groupSlots++;
+                } else {
+                    mandatorySlots++;
+                }
+            }
+        }
+        if (group != null) {
+            throw new IllegalStateException("Unbalanced optional group: " + mask);
+        }
+        parts.add(mandatory.toString());
+        partSlots.add(0);
+
+        minSlotCount = mandatorySlots;
+        int optionalSlots = 0;
+        for (int i = 1; i < partSlots.size(); i += 2) {
+            optionalSlots += partSlots.get(i);
+        }
+        masks = new Mask[mandatorySlots + optionalSlots + 1];
+        final int groupCount = parts.size() / 2;
+        Mask previous = null;
+        int previousGroups = -1;
+        for (int rawLength = 0; rawLength < masks.length; rawLength++) {
+            int excess = rawLength - mandatorySlots;
+            int groups = 0;
+            while (groups < groupCount && excess > 0) {
+                excess -= partSlots.get(2 * groups + 1);
+                groups++;
+            }
+            if (groups != previousGroups) {
+                previous = expand(parts, groups, groupCount, template);
+                previousGroups = groups;
+            }
+            masks[rawLength] = previous;
+        }
+    }
+
+    /**
+     * Ends the current mandatory part and adds an optional group after it. {@code parts} alternates mandatory
+     * parts and groups, {@code partSlots} has the slot count of every group.
+     */
+    private static void addPart(List<String> parts, List<Integer> partSlots, StringBuilder mandatory,
+            String group, int groupSlots) {
+        parts.add(mandatory.toString());
+        partSlots.add(0);
+        parts.add(group);
+        partSlots.add(groupSlots);
+        mandatory.setLength(0);
+    }
+
+    private static int parseBound(String bound, String mask) {
+        try {
+            return Integer.parseInt(bound.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid repetition bound '" + bound + "': " + mask);
+        }
+    }
+
+    /** @return Fixed mask with the first {@code groups} optional groups */
+    private static Mask expand(List<String> parts, int groups, int groupCount, Mask template) {
+        final StringBuilder expanded = new StringBuilder();
+        for (int i = 0; i < parts.size(); i++) {
+            if (i % 2 == 0 || i / 2 < groups) {
+                expanded.append(parts.get(i));
+            }
+        }
+        return new Mask.Builder(template)
+                .setMask(expanded.toString())
+                .setEnforceMaskLength(groups == groupCount && template.enforceMaskLength)
+                .build();
+    }
+
+    public String getMask() {
+        return mask;
+    }
+
+    /** @return Number of placeholders without the optional ones. */
+    public int minSlotCount() {
+        return minSlotCount;
+    }
+
+    /** @return Number of placeholders with all optional groups and repetitions. */
+    public int maxSlotCount() {
+        return masks.length - 1;
+    }
+
+    /** @return Fixed mask to apply on a raw input of {@code rawLength} characters */
+    public Mask forRawLength(int rawLength) {
+        return masks[Math.min(rawLength, masks.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" +
+                "mask=" + mask + ", " +
+                "masks=" + masks[0] + " .. " + masks[masks.length - 1] + "]";
+    }
+}
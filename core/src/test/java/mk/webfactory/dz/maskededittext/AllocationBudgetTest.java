@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs scripted typing sessions through the incremental re-masking and fails if a keystroke allocates or
+ * re-masks more than the committed budget. Raise a budget only together with the change that needs it.
+ */
+public class AllocationBudgetTest {
+
+    /** Bytes per keystroke once the buffers have grown, a little above 0 for the noise of measuring. */
+    private static final long ALLOCATED_BYTES_PER_KEYSTROKE = 8;
+    /** Average number of characters masked again per keystroke, exceeded if the full text is masked on every one. */
+    private static final int RE_MASKED_CHARS_PER_KEYSTROKE = 8;
+    private static final int ROUNDS = 20;
+
+    private static final Mask CARD = new Mask("#### #### #### ####", '#', true);
+    private static final Mask PHONE = new Mask("+### (##) ###-###", '#', true);
+    private static final Mask FREE_FORM = new Mask("###-###-###-###-###-###-###-###", '#', false);
+    private static final Mask DATE = new Mask.Builder()
+            .setMask("00/00/0000")
+            .addPlaceholder('0', CharClass.DIGIT)
+            .build();
+    private static final Mask AMOUNT = new Mask.Builder()
+            .setMask("#,###,###.##")
+            .setReverseFill(true)
+            .build();
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private final TextSelectionBuffer textMasked = new TextSelectionBuffer();
+    private final TextSelectionBuffer rawInput = new TextSelectionBuffer();
+    private final TextSelectionBuffer nextText = new TextSelectionBuffer();
+    private final TextSelectionBuffer keyBuffer = TextSelectionBuffer.wrap(new char[1]);
+    private int keystrokes;
+    private long reMaskedChars;
+
+    @Before
+    public void setUp() throws Exception {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void testCardSession() throws Exception {
+        assertWithinBudget(CARD, "4111111111111111");
+    }
+
+    @Test
+    public void testPhoneSession() throws Exception {
+        assertWithinBudget(PHONE, "38970123456");
+    }
+
+    @Test
+    public void testFreeFormSession() throws Exception {
+        assertWithinBudget(FREE_FORM, "123456789012345678901234567890");
+    }
+
+    @Test
+    public void testTypedSession() throws Exception {
+        assertWithinBudget(DATE, "3112x1999");
+    }
+
+    @Test
+    public void testReverseFillSession() throws Exception {
+        //every raw character moves on a keystroke, the whole text is masked again by design
+        assertWithinBudget(AMOUNT, "123456789", AMOUNT.maskChars.length);
+    }
+
+    private void assertWithinBudget(Mask mask, String keys) {
+        assertWithinBudget(mask, keys, RE_MASKED_CHARS_PER_KEYSTROKE);
+    }
+
+    private void assertWithinBudget(Mask mask, String keys, int reMaskedCharsPerKeystroke) {
+        //warms up the code and grows the buffers to the size of the session
+        runSession(mask, keys);
+        keystrokes = 0;
+        reMaskedChars = 0;
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            runSession(mask, keys);
+        }
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(mask + ": " + allocated + " bytes allocated in " + keystrokes + " keystrokes",
+                allocated <= ALLOCATED_BYTES_PER_KEYSTROKE * keystrokes);
+        assertTrue(mask + ": " + reMaskedChars + " characters masked again in " + keystrokes + " keystrokes",
+                reMaskedChars <= (long) reMaskedCharsPerKeystroke * keystrokes);
+    }
+
+    /**
+     * Types every key at the end, three more in the middle, deletes those and then deletes all raw input with
+     * backspace at the end. Leading literals are left, the widget takes their deletion over as is.
+     */
+    private void runSession(Mask mask, String keys) {
+        textMasked.clear();
+        rawInput.clear();
+        for (int i = 0; i < keys.length(); i++) {
+            type(mask, textMasked.length(), keys.charAt(i));
+        }
+        final int middle = textMasked.length() / 2;
+        int selection = middle;
+        for (int i = 0; i < 3; i++) {
+            type(mask, selection, keys.charAt(i));
+            selection = textMasked.selection;
+        }
+        for (int i = 0; i < 3 && selection > 0; i++) {
+            backspace(mask, selection);
+            selection = textMasked.selection;
+        }
+        while (rawInput.length() > 0) {
+            backspace(mask, textMasked.length());
+        }
+    }
+
+    private void type(Mask mask, int selection, char key) {
+        nextText.set(textMasked);
+        keyBuffer.chars[0] = key;
+        nextText.replace(selection, selection, keyBuffer, 0, 1);
+        reMask(mask);
+    }
+
+    private void backspace(Mask mask, int selection) {
+        nextText.set(textMasked);
+        nextText.replace(selection - 1, selection, "", 0, 0);
+        reMask(mask);
+    }
+
+    private void reMask(Mask mask) {
+        final int changeStart = MaskUtil.commonPrefixLength(textMasked, nextText);
+        final int reMaskedFrom = MaskUtil.reMaskSubsequentInput(textMasked, rawInput, nextText, changeStart, mask);
+        reMaskedChars += textMasked.length() - reMaskedFrom;
+        keystrokes++;
+    }
+}
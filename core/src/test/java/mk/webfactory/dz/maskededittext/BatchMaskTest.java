@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static mk.webfactory.dz.maskededittext.MaskUtil.maskedLengthBound;
+import static mk.webfactory.dz.maskededittext.MaskUtil.setMask;
+import static mk.webfactory.dz.maskededittext.MaskUtil.stripMask;
+import static org.junit.Assert.assertEquals;
+
+public class BatchMaskTest {
+
+    private static final Mask MASK = new Mask("+(###) ##", '#', false);
+    private static final List<String> RAW_INPUTS = Arrays.asList("12345", "", "1", "123456789");
+
+    @Test
+    public void testSetMaskList() throws Exception {
+        final char[] out = new char[maskedLengthBound(MASK, RAW_INPUTS.size(), 15)];
+        final int[] ends = new int[RAW_INPUTS.size()];
+
+        final int length = setMask(RAW_INPUTS, MASK, out, ends);
+
+        assertEquals(ends[ends.length - 1], length);
+        for (int i = 0; i < RAW_INPUTS.size(); i++) {
+            assertEquals(setMask(RAW_INPUTS.get(i), MASK), resultAt(out, ends, i));
+        }
+    }
+
+    @Test
+    public void testSetMaskPacked() throws Exception {
+        final char[] packed = "12345".concat("1").concat("123456789").toCharArray();
+        final int[] inputEnds = {5, 5, 6, 15};
+        final char[] out = new char[maskedLengthBound(MASK, inputEnds.length, packed.length)];
+        final int[] ends = new int[inputEnds.length];
+
+        setMask(packed, inputEnds, inputEnds.length, MASK, out, ends);
+
+        for (int i = 0; i < RAW_INPUTS.size(); i++) {
+            assertEquals(setMask(RAW_INPUTS.get(i), MASK), resultAt(out, ends, i));
+        }
+    }
+
+    @Test
+    public void testStripMask() throws Exception {
+        final List<String> maskedInputs = Arrays.asList("+(123) 45", "+(", "+(1", "+(123) 456789");
+        final char[] out = new char[32];
+        final int[] ends = new int[maskedInputs.size()];
+
+        stripMask(maskedInputs, MASK, out, ends);
+
+        for (int i = 0; i < RAW_INPUTS.size(); i++) {
+            assertEquals(RAW_INPUTS.get(i), resultAt(out, ends, i));
+        }
+
+        final char[] packed = "+(123) 45+(+(1+(123) 456789".toCharArray();
+        stripMask(packed, new int[]{9, 11, 14, 27}, 4, MASK, out, ends);
+
+        for (int i = 0; i < RAW_INPUTS.size(); i++) {
+            assertEquals(RAW_INPUTS.get(i), resultAt(out, ends, i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutputBufferTooSmall() throws Exception {
+        setMask(RAW_INPUTS, MASK, new char[10], new int[RAW_INPUTS.size()]);
+    }
+
+    private static String resultAt(char[] out, int[] ends, int index) {
+        final int start = index == 0 ? 0 : ends[index - 1];
+        return new String(out, start, ends[index] - start);
+    }
+}
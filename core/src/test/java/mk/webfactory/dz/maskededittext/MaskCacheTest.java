@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MaskCacheTest {
+
+    @Test
+    public void testSharesEqualMasks() throws Exception {
+        final MaskCache cache = new MaskCache(4);
+
+        final Mask mask = cache.get("##-##", '#', true);
+
+        assertSame(mask, cache.get("##-##", '#', true));
+        assertEquals(new Mask("##-##", '#', true), mask);
+        assertNotSame(mask, cache.get("##-##", '#', false));
+        assertNotSame(mask, cache.get("##-##", '-', true));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        final MaskCache cache = new MaskCache(2);
+        final Mask first = cache.get("#", '#', true);
+        final Mask second = cache.get("##", '#', true);
+
+        assertSame(first, cache.get("#", '#', true));
+        cache.get("###", '#', true);
+
+        assertEquals(2, cache.size());
+        assertSame(first, cache.get("#", '#', true));
+        assertNotSame(second, cache.get("##", '#', true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNullMask() throws Exception {
+        new MaskCache(1).get(null, '#', true);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MaskFormatterTest {
+
+    private static final Mask PHONE = new Mask("+(###) ###-###", '#', true);
+    private static final Mask[] SHARED_MASKS = {
+            PHONE,
+            new Mask("####-####-####-####", '#', false),
+            new Mask.Builder().setMask("00/00/0000").addPlaceholder('0', CharClass.DIGIT).build(),
+            new Mask.Builder().setMask("#,###,###.##").setReverseFill(true).build(),
+    };
+
+    private static final int THREADS = 8;
+    private static final int INPUTS = 200;
+    private static final int ROUNDS = 50;
+
+    @Test
+    public void testFormatAndStrip() throws Exception {
+        final MaskFormatter formatter = new MaskFormatter(PHONE);
+
+        assertEquals("+(123) 456-789", formatter.format("123456789"));
+        assertEquals("+(12", formatter.format("12"));
+        assertEquals("123456789", formatter.strip("+(123) 456-789"));
+        assertEquals("12", formatter.strip("+(12"));
+        assertEquals("a: +(123) 4", formatter.format("1234", new StringBuilder("a: ")).toString());
+        assertEquals("a: 1234", formatter.strip("+(123) 4", new StringBuilder("a: ")).toString());
+    }
+
+    @Test
+    public void testPerThread() throws Exception {
+        final ThreadLocal<MaskFormatter> formatters = MaskFormatter.perThread(PHONE);
+        final MaskFormatter formatter = formatters.get();
+        assertSame(formatter, formatters.get());
+        assertSame(PHONE, formatter.getMask());
+
+        final MaskFormatter[] other = new MaskFormatter[1];
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                other[0] = formatters.get();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(other[0] != formatter);
+    }
+
+    /**
+     * Threads released at once mask and strip random input with the same mask instances, each through its
+     * own formatter and through {@link MaskUtil}, and compare every result with the one computed up front on
+     * a single thread.
+     */
+    @Test
+    public void testSharedMasksUnderContention() throws Exception {
+        final String[][] inputs = new String[SHARED_MASKS.length][INPUTS];
+        final String[][] masked = new String[SHARED_MASKS.length][INPUTS];
+        final Random random = new Random(42);
+        for (int m = 0; m < SHARED_MASKS.length; m++) {
+            for (int i = 0; i < INPUTS; i++) {
+                inputs[m][i] = randomInput(random, 2 * SHARED_MASKS[m].slotCount());
+                masked[m][i] = MaskUtil.setMask(inputs[m][i], SHARED_MASKS[m]);
+            }
+        }
+        final List<ThreadLocal<MaskFormatter>> formatters = new ArrayList<>();
+        for (Mask mask : SHARED_MASKS) {
+            formatters.add(MaskFormatter.perThread(mask));
+        }
+
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        final List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                results.add(pool.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int checked = 0;
+                        for (int round = 0; round < ROUNDS; round++) {
+                            for (int i = 0; i < INPUTS; i++) {
+                                //threads walk the masks and inputs in different orders
+                                final int m = (i + offset + round) % SHARED_MASKS.length;
+                                final int input = (i * (offset + 1)) % INPUTS;
+                                final MaskFormatter formatter = formatters.get(m).get();
+                                final String result = formatter.format(inputs[m][input]);
+                                assertEquals(masked[m][input], result);
+                                assertEquals(masked[m][input], MaskUtil.setMask(inputs[m][input], SHARED_MASKS[m]));
+                                assertEquals(MaskUtil.stripMask(result, SHARED_MASKS[m]), formatter.strip(result));
+                                checked++;
+                            }
+                        }
+                        return checked;
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(ROUNDS * INPUTS, (int) result.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String randomInput(Random random, int maxLength) {
+        final char[] input = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextInt(4) == 0 ? (char) ('a' + random.nextInt(26)) : (char) ('0' + random.nextInt(10));
+        }
+        return new String(input);
+    }
+}
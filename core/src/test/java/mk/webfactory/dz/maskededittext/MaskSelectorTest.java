@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+
+public class MaskSelectorTest {
+
+    private static final Mask CARD = Mask.from("#### #### #### ####");
+    private static final Mask AMEX = Mask.from("#### ###### #####");
+    private static final Mask DINERS = Mask.from("#### ###### ####");
+    private static final Mask OTHER = new Mask("###################", '#', false);
+
+    private final MaskSelector selector = new MaskSelector.Builder(CARD)
+            .add("34", AMEX)
+            .add("37", AMEX)
+            .add("36", DINERS)
+            .add("3", OTHER)
+            .build();
+
+    @Test
+    public void testSelectByLongestPrefix() throws Exception {
+        assertSame(CARD, selector.select(""));
+        assertSame(CARD, selector.select("4111"));
+        assertSame(OTHER, selector.select("3"));
+        assertSame(AMEX, selector.select("34"));
+        assertSame(AMEX, selector.select("3712"));
+        assertSame(DINERS, selector.select("3600000"));
+        assertSame(OTHER, selector.select("39"));
+    }
+
+    @Test
+    public void testSelectVariableMask() throws Exception {
+        final VariableMask local = new Mask.Builder().setMask("### ###[#]").buildVariable();
+        final MaskSelector phones = new MaskSelector.Builder(local)
+                .add("00", Mask.from("00 ### ## ######"))
+                .build();
+
+        assertSame(local.forRawLength(0), phones.select("123"));
+        assertSame(local.forRawLength(7), phones.select("1234567"));
+        assertSame(phones.select("00"), phones.select("0038970"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicatePrefix() throws Exception {
+        new MaskSelector.Builder(CARD).add("34", AMEX).add("34", CARD);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterBuild() throws Exception {
+        final MaskSelector.Builder builder = new MaskSelector.Builder(CARD);
+        builder.build();
+        builder.add("34", AMEX);
+    }
+}
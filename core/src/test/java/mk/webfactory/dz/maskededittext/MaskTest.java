@@ -0,0 +1,119 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MaskTest {
+
+    @Test
+    public void testSlotTable() throws Exception {
+        final Mask mask = Mask.from("+(###) ##");
+
+        assertArrayEquals(new int[]{2, 3, 4, 7, 8}, mask.slotIndices);
+        assertArrayEquals(new int[]{0, 0, 0, 1, 2, 3, 3, 3, 4, 5}, mask.rawIndices);
+        assertEquals(5, mask.slotCount());
+    }
+
+    @Test
+    public void testNextSlotIndex() throws Exception {
+        final Mask mask = Mask.from("+(###) ##");
+
+        assertEquals(2, mask.nextSlotIndex(0));
+        assertEquals(4, mask.nextSlotIndex(4));
+        assertEquals(7, mask.nextSlotIndex(5));
+        assertEquals(9, mask.nextSlotIndex(9));
+    }
+
+    @Test
+    public void testMaskedIndexAfter() throws Exception {
+        final Mask mask = Mask.from("+(###) ##");
+
+        assertEquals(0, mask.maskedIndexAfter(0));
+        assertEquals(3, mask.maskedIndexAfter(1));
+        assertEquals(5, mask.maskedIndexAfter(3));
+        assertEquals(9, mask.maskedIndexAfter(5));
+        assertEquals(11, mask.maskedIndexAfter(7));
+        assertEquals(5, mask.rawIndexAt(mask.maskedIndexAfter(5)));
+    }
+
+    @Test
+    public void testReverseFillIndices() throws Exception {
+        final Mask mask = new Mask.Builder().setMask("#,###,###.##").setReverseFill(true).build();
+
+        //123.45
+        assertEquals(0, mask.rawIndexAt(0, 6, 5));
+        assertEquals(2, mask.rawIndexAt(2, 6, 5));
+        assertEquals(3, mask.rawIndexAt(4, 6, 5));
+        assertEquals(0, mask.selectionAfter(0, 6, 5));
+        assertEquals(2, mask.selectionAfter(2, 6, 5));
+        assertEquals(4, mask.selectionAfter(3, 6, 5));
+        assertEquals(6, mask.selectionAfter(5, 6, 5));
+    }
+
+    @Test
+    public void testTypedSlots() throws Exception {
+        final Mask mask = new Mask.Builder()
+                .setMask("#0-A")
+                .addPlaceholder('0', CharClass.DIGIT)
+                .addPlaceholder('A', CharClass.LETTER)
+                .build();
+
+        assertArrayEquals(new int[]{0, 1, 3}, mask.slotIndices);
+        assertEquals(CharClass.ANY, mask.slotClass(0));
+        assertEquals(CharClass.DIGIT, mask.slotClass(1));
+        assertEquals(CharClass.LETTER, mask.slotClass(2));
+        assertFalse(mask.equals(Mask.from("#0-A")));
+        assertEquals(mask, new Mask.Builder(mask).build());
+        assertNull(Mask.from("#0-A").slotClasses);
+    }
+
+    @Test
+    public void testCharClasses() throws Exception {
+        assertTrue(CharClass.DIGIT.accepts('7'));
+        assertFalse(CharClass.DIGIT.accepts('a'));
+        assertTrue(CharClass.DIGIT.accepts('\u0663'));
+        assertTrue(CharClass.LETTER.accepts('\u00e9'));
+        assertFalse(CharClass.LETTER.accepts(' '));
+        assertTrue(CharClass.LETTER_OR_DIGIT.accepts('Z'));
+        assertFalse(CharClass.LETTER_OR_DIGIT.accepts('-'));
+        assertTrue(CharClass.ANY.accepts('-'));
+    }
+
+    @Test
+    public void testNoSlots() throws Exception {
+        final Mask mask = new Mask("--", 'Y', true);
+
+        assertEquals(0, mask.slotCount());
+        assertArrayEquals(new int[]{0, 0, 0}, mask.rawIndices);
+        assertEquals(2, mask.nextSlotIndex(0));
+    }
+}
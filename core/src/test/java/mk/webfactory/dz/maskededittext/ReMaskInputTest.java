@@ -26,8 +26,10 @@ package mk.webfactory.dz.maskededittext;
 
 import org.junit.Test;
 
+import static mk.webfactory.dz.maskededittext.MaskUtil.commonPrefixLength;
 import static mk.webfactory.dz.maskededittext.MaskUtil.isInputMasked;
 import static mk.webfactory.dz.maskededittext.MaskUtil.reMaskSubsequentInput;
+import static mk.webfactory.dz.maskededittext.MaskUtil.stripMask;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -140,6 +142,69 @@ public class ReMaskInputTest {
         assertEquals("$-", iteration.text);
     }
 
+    @Test
+    public void testReMaskIncrementally() throws Exception {
+        final Mask mask = new Mask("##-#--#", '#', false);
+        final TextSelectionBuffer textMasked = new TextSelectionBuffer(1);
+        final TextSelectionBuffer rawInput = new TextSelectionBuffer(1);
+
+        final String[] inputs = {"a", "ab-c", "ab-c--d", "ab-d--", "XYab-d--", "XY-a--bd", "XY-a--bdEXTRA", "XY-a"};
+        for (final String input : inputs) {
+            final TextSelectionWrapper expected = reMaskSubsequentInput(textMasked.toString(), input, mask);
+            reMaskSubsequentInput(textMasked, rawInput, input, commonPrefixLength(textMasked, input), mask);
+            assertEquals(expected.text, textMasked.toString());
+            assertEquals(expected.selection, textMasked.selection);
+            assertEquals(stripMask(expected.text, mask), rawInput.toString());
+        }
+    }
+
+    @Test
+    public void testReMaskTypedPlaceholders() throws Exception {
+        final Mask mask = SetStripMaskTest.typedMask("00/AA");
+
+        TextSelectionWrapper iteration = new TextSelectionWrapper("", 0);
+
+        iteration = reMaskSubsequentInput(iteration.text, iteration.text.concat("1a"), mask);
+        assertEquals("1", iteration.text);
+        assertEquals(1, iteration.selection);
+
+        iteration = reMaskSubsequentInput(iteration.text, iteration.text.concat("2x"), mask);
+        assertEquals("12/x", iteration.text);
+
+        iteration = reMaskSubsequentInput(iteration.text, "9" + iteration.text, mask);
+        assertEquals("91/x", iteration.text);
+        assertEquals(1, iteration.selection);
+
+        iteration = reMaskSubsequentInput(iteration.text, "a" + iteration.text, mask);
+        assertEquals("91/x", iteration.text);
+        assertEquals(0, iteration.selection);
+    }
+
+    @Test
+    public void testReMaskReverseFill() throws Exception {
+        final Mask mask = SetStripMaskTest.reverseMask("#,###.##", true);
+
+        TextSelectionWrapper iteration = new TextSelectionWrapper("", 0);
+        for (final String digit : new String[]{"1", "2", "3", "4", "5"}) {
+            iteration = reMaskSubsequentInput(iteration.text, iteration.text.concat(digit), mask);
+        }
+        assertEquals("123.45", iteration.text);
+        assertEquals(6, iteration.selection);
+
+        iteration = reMaskSubsequentInput(iteration.text, "9" + iteration.text, mask);
+        assertEquals("9,123.45", iteration.text);
+        assertEquals(2, iteration.selection);
+
+        //backspace over the decimal point removes the digit before it
+        iteration = reMaskSubsequentInput(iteration.text, "9,12345", mask);
+        assertEquals("912.45", iteration.text);
+        assertEquals(4, iteration.selection);
+
+        iteration = reMaskSubsequentInput(iteration.text, "912.4", mask);
+        assertEquals("91.24", iteration.text);
+        assertEquals(5, iteration.selection);
+    }
+
     @Test
     public void testIsInputMasked() throws Exception {
         final Mask mask = new Mask("###--##", '#', true);
@@ -154,4 +219,34 @@ public class ReMaskInputTest {
         assertTrue(isInputMasked("abc--a", mask));
         assertTrue(isInputMasked("abc--ab", mask));
     }
+
+    @Test
+    public void testIsInputMaskedFromIndex() throws Exception {
+        final Mask mask = new Mask("###--##", '#', true);
+
+        assertTrue(isInputMasked("XXXXXab", mask, 5));
+        assertFalse(isInputMasked("abc-Xab", mask, 4));
+        assertFalse(isInputMasked("abc-", mask, 3));
+    }
+
+    @Test
+    public void testIsInputMaskedReverseFill() throws Exception {
+        final Mask mask = SetStripMaskTest.reverseMask("#,###.##", true);
+
+        assertTrue(isInputMasked("", mask));
+        assertTrue(isInputMasked("1.23", mask));
+        assertFalse(isInputMasked("12.3", mask));
+        assertFalse(isInputMasked(".23", mask));
+        assertFalse(isInputMasked("12,345.67", mask));
+    }
+
+    @Test
+    public void testIsInputMaskedTyped() throws Exception {
+        final Mask mask = SetStripMaskTest.typedMask("00/AA");
+
+        assertTrue(isInputMasked("12/ab", mask));
+        assertFalse(isInputMasked("1x/ab", mask));
+        assertFalse(isInputMasked("12/a1", mask));
+        assertFalse(isInputMasked("12/a1", mask, 4));
+    }
 }
@@ -66,9 +66,39 @@ public class SetStripMaskTest {
 
             //Mask character not in mask
             testCase(new Mask("##-##", 'Y', false), "ABC", "##-##ABC", "ABC"),
-            testCase(new Mask("##-##", 'Y', true), "ABC", "##-##", "")
+            testCase(new Mask("##-##", 'Y', true), "ABC", "##-##", ""),
+
+            //Typed placeholders, rejected characters are dropped
+            testCase(typedMask("00/AA"), "1a2b", "12/b", "12b"),
+            testCase(typedMask("#0-*"), "ab1-c", "a1-c", "a1c"),
+            testCase(typedMask("**"), "-\u00e9\u0663", "\u00e9\u0663", "\u00e9\u0663"),
+
+            //Reverse fill
+            testCase(reverseMask("#,###,###.##", true), "12345", "123.45"),
+            testCase(reverseMask("#,###,###.##", true), "1", "1"),
+            testCase(reverseMask("#,###,###.##", true), "123456789", "1,234,567.89"),
+            testCase(reverseMask("#,###,###.##", true), "1234567890", "1,234,567.89", "123456789"),
+            testCase(reverseMask("$#,###", false), "123456", "12$3,456"),
+            testCase(reverseMask("## EUR", true), "", "")
     );
 
+    static Mask reverseMask(String mask, boolean enforceMaskLength) {
+        return new Mask.Builder()
+                .setMask(mask)
+                .setEnforceMaskLength(enforceMaskLength)
+                .setReverseFill(true)
+                .build();
+    }
+
+    static Mask typedMask(String mask) {
+        return new Mask.Builder()
+                .setMask(mask)
+                .addPlaceholder('0', CharClass.DIGIT)
+                .addPlaceholder('A', CharClass.LETTER)
+                .addPlaceholder('*', CharClass.LETTER_OR_DIGIT)
+                .build();
+    }
+
     @Test
     public void testSetMask() throws Exception {
         for (final MaskInputResultWrapper testCase : testCases) {
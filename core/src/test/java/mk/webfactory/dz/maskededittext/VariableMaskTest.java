@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import org.junit.Test;
+
+import static mk.webfactory.dz.maskededittext.MaskUtil.setMask;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VariableMaskTest {
+
+    @Test
+    public void testOptionalGroup() throws Exception {
+        final VariableMask zip = new Mask.Builder().setMask("#####[-####]").buildVariable();
+
+        assertEquals(5, zip.minSlotCount());
+        assertEquals(9, zip.maxSlotCount());
+        assertEquals("123", setMask("123", zip));
+        assertEquals("12345", setMask("12345", zip));
+        assertEquals("12345-6", setMask("123456", zip));
+        assertEquals("12345-6789", setMask("1234567890", zip));
+        assertFalse(zip.forRawLength(5).isMaskLengthEnforced());
+        assertTrue(zip.forRawLength(9).isMaskLengthEnforced());
+    }
+
+    @Test
+    public void testLeadingOptionalGroup() throws Exception {
+        final VariableMask phone = new Mask.Builder().setMask("[+# ](###) ###").buildVariable();
+
+        assertEquals("(123) 456", setMask("123456", phone));
+        assertEquals("+1 (234) 567", setMask("1234567", phone));
+    }
+
+    @Test
+    public void testRepetition() throws Exception {
+        final VariableMask phone = new Mask.Builder()
+                .setMask("+389 #{2} ###-###{1,3}")
+                .setEnforceMaskLength(false)
+                .buildVariable();
+
+        assertEquals(8, phone.minSlotCount());
+        assertEquals(10, phone.maxSlotCount());
+        assertEquals("+389 70 123-456", setMask("70123456", phone));
+        assertEquals("+389 70 123-4567", setMask("701234567", phone));
+        assertEquals("+389 70 123-456789X", setMask("70123456789X", phone));
+        assertSame(phone.forRawLength(0), phone.forRawLength(8));
+    }
+
+    @Test
+    public void testEscapeAndTypedPlaceholders() throws Exception {
+        final VariableMask mask = new Mask.Builder()
+                .setMask("\\[00\\][ A]")
+                .addPlaceholder('0', CharClass.DIGIT)
+                .addPlaceholder('A', CharClass.LETTER)
+                .buildVariable();
+
+        assertEquals("[12]", setMask("12", mask));
+        assertEquals("[12] x", setMask("12x", mask));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNestedGroups() throws Exception {
+        new Mask.Builder().setMask("#[#[#]]").buildVariable();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRepeatedLiteral() throws Exception {
+        new Mask.Builder().setMask("#-{2}").buildVariable();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEscapedPlaceholder() throws Exception {
+        new Mask.Builder().setMask("\\##").buildVariable();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGroupWithoutPlaceholder() throws Exception {
+        new Mask.Builder().setMask("a[b]##").buildVariable();
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import android.text.Editable;
+import android.text.Spanned;
+import android.view.inputmethod.BaseInputConnection;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/**
+ * TextWatcher that keeps only the raw input in the text and renders the literals of the mask with a
+ * {@link MaskLiteralSpan} on the raw character after them. The text is never masked again, an edit only
+ * drops the characters the mask rejects and moves the spans of the slots from the edit point forward.
+ */
+final class LiteralSpanTextWatcher implements MaskingTextWatcher {
+
+    private Mask mask;
+    private MaskSelector maskSelector;
+    private MaskMetricsListener metricsListener;
+    /** Span of each slot, null if there are no literals around it. */
+    private MaskLiteralSpan[] spans;
+    /** Span of each slot as the last one of the text, with the literals up to the next slot after it. */
+    private MaskLiteralSpan[] lastSpans;
+    /** Span of each slot as the first one of a reverse-filled text, without the literals before it. */
+    private MaskLiteralSpan[] firstSpans;
+    private boolean applyingChange;
+    private boolean inBatchEdit;
+    private boolean changePending;
+    /** Start of the first change since the spans were set, the spans of the slots after it may have moved. */
+    private int changeStart = Integer.MAX_VALUE;
+    /** Text as of the last change, the raw input. */
+    private final TextSelectionBuffer rawInput = new TextSelectionBuffer();
+    /** {@link #rawInput} as returned by {@link #getRawInput()}, null if changed since. */
+    private String rawInputSnapshot = "";
+
+    LiteralSpanTextWatcher(Mask mask) {
+        createSpans(mask);
+    }
+
+    @NonNull
+    @Override
+    public String getRawInput() {
+        if (rawInputSnapshot == null) {
+            rawInputSnapshot = rawInput.toString();
+        }
+        return rawInputSnapshot;
+    }
+
+    @Override
+    public Mask getMask() {
+        return mask;
+    }
+
+    /** The last span draws the literals up to the next slot, leading literals need a raw character to be drawn. */
+    @Override
+    public int getMaskedLength() {
+        final int length = rawInput.length();
+        if (length == 0) {
+            return 0;
+        }
+        return length < mask.slotCount() && !mask.reverseFill ? mask.slotIndices[length] : mask.maskChars.length;
+    }
+
+    @Override
+    public void setMask(Mask mask, Editable editable) {
+        if (!this.mask.equals(mask)) {
+            removeSpans(editable);
+            createSpans(mask);
+            update(editable, 0);
+        }
+    }
+
+    @Override
+    public void setMaskSelector(MaskSelector maskSelector, Editable editable) {
+        this.maskSelector = maskSelector;
+        if (maskSelector != null) {
+            setMask(maskSelector.select(editable), editable);
+        }
+    }
+
+    @Override
+    public void setMetricsListener(MaskMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /** Every change is masked in place, an edit only filters the inserted characters and moves no text. */
+    @Override
+    public void setExecutor(Executor executor, int minChangeLength, Executor mainThreadExecutor) {}
+
+    @Override
+    public void setInBatchEdit(boolean inBatchEdit, Editable editable) {
+        this.inBatchEdit = inBatchEdit;
+        if (!inBatchEdit) {
+            maskPendingChange(editable);
+        }
+    }
+
+    @Override
+    public boolean hasPendingChange() {
+        return changePending;
+    }
+
+    @Override
+    public void maskPendingChange(Editable editable) {
+        if (changePending) {
+            afterTextChanged(editable);
+        }
+    }
+
+    @Override
+    public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+        if (!applyingChange) {
+            changeStart = Math.min(changeStart, start);
+        }
+    }
+
+    @Override
+    public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+    @Override
+    public void afterTextChanged(Editable editable) {
+        if (applyingChange) {
+            return;
+        }
+        //dropping rejected characters would replace the region the IME is composing in
+        if (inBatchEdit || BaseInputConnection.getComposingSpanStart(editable) != -1) {
+            changePending = true;
+            return;
+        }
+        changePending = false;
+        final MaskMetricsListener listener = metricsListener;
+        final long startNanos = listener != null ? System.nanoTime() : 0;
+
+        //an insert that starts with the characters before it is not the common prefix, the spans moved with it
+        int changeStart = Math.min(this.changeStart, MaskUtil.commonPrefixLength(rawInput, editable));
+        if (maskSelector != null) {
+            final Mask selected = maskSelector.select(editable);
+            if (!mask.equals(selected)) {
+                removeSpans(editable);
+                createSpans(selected);
+                changeStart = 0;
+            }
+        }
+        update(editable, changeStart);
+        if (listener != null) {
+            listener.onEditMasked(System.nanoTime() - startNanos, 0, editable.length() - changeStart, false, 0);
+        }
+    }
+
+    /** Drops the characters after {@code changeStart} that the mask rejects and sets the spans of the slots. */
+    private void update(Editable editable, int changeStart) {
+        final int previousLength = rawInput.length();
+        applyingChange = true;
+        try {
+            if (mask.reverseFill) {
+                filterReverse(editable);
+                changeStart = 0;
+            } else {
+                filter(editable, changeStart);
+            }
+        } finally {
+            applyingChange = false;
+        }
+        final int length = editable.length();
+        if (mask.reverseFill) {
+            setSpansReverse(editable, length);
+        } else {
+            setSpans(editable, changeStart, previousLength, length);
+        }
+        changeStart = Math.min(changeStart, length);
+        this.changeStart = Integer.MAX_VALUE;
+        rawInput.setLength(changeStart);
+        rawInput.append(editable, changeStart, length);
+        rawInputSnapshot = null;
+    }
+
+    private void filter(Editable editable, int start) {
+        final int slotCount = spans.length;
+        int i = start;
+        while (i < editable.length()) {
+            if (i >= slotCount) {
+                if (mask.enforceMaskLength) {
+                    editable.delete(i, editable.length());
+                }
+                return;
+            }
+            if (mask.accepts(i, editable.charAt(i))) {
+                i++;
+            } else {
+                editable.delete(i, i + 1);
+            }
+        }
+    }
+
+    /** Every raw character moves to another slot on an edit, the whole text is checked from its end. */
+    private void filterReverse(Editable editable) {
+        final int slotCount = spans.length;
+        if (mask.enforceMaskLength && editable.length() > slotCount) {
+            editable.delete(slotCount, editable.length());
+        }
+        if (mask.slotClasses == null) {
+            return;
+        }
+        int slot = slotCount - 1;
+        for (int i = editable.length() - 1; i >= 0 && slot >= 0; i--) {
+            if (mask.accepts(slot, editable.charAt(i))) {
+                slot--;
+            } else {
+                editable.delete(i, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Sets the spans of the slots from {@code changeStart} forward on the raw characters, together with the
+     * last raw characters before and after the change since only the last one shows the literals after it.
+     */
+    private void setSpans(Editable editable, int changeStart, int previousLength, int length) {
+        final int slotCount = spans.length;
+        if (previousLength > 0 && previousLength <= slotCount) {
+            removeSpan(editable, lastSpans[previousLength - 1]);
+        }
+        final int start = Math.max(0, Math.min(changeStart, Math.min(previousLength, length) - 1));
+        for (int i = start, end = Math.min(length, slotCount); i < end; i++) {
+            if (i == length - 1) {
+                removeSpan(editable, spans[i]);
+                setSpan(editable, lastSpans[i], i);
+            } else {
+                setSpan(editable, spans[i], i);
+            }
+        }
+        for (int i = length, end = Math.min(previousLength, slotCount); i < end; i++) {
+            removeSpan(editable, spans[i]);
+        }
+    }
+
+    /** A reverse-filled text is aligned with the end of the mask, the first raw character has no literals before. */
+    private void setSpansReverse(Editable editable, int length) {
+        removeSpans(editable);
+        final int offset = spans.length - length;
+        for (int i = Math.max(0, -offset); i < length; i++) {
+            setSpan(editable, i == 0 && offset >= 0 ? firstSpans[offset + i] : spans[offset + i], i);
+        }
+    }
+
+    private void removeSpans(Editable editable) {
+        for (int i = 0; i < spans.length; i++) {
+            removeSpan(editable, spans[i]);
+            removeSpan(editable, lastSpans[i]);
+            if (firstSpans != null) {
+                removeSpan(editable, firstSpans[i]);
+            }
+        }
+    }
+
+    private static void setSpan(Editable editable, MaskLiteralSpan span, int index) {
+        if (span != null) {
+            editable.setSpan(span, index, index + 1, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+    }
+
+    private static void removeSpan(Editable editable, MaskLiteralSpan span) {
+        if (span != null) {
+            editable.removeSpan(span);
+        }
+    }
+
+    /** Creates the spans of {@code mask} once, they are moved between the raw characters from then on. */
+    private void createSpans(Mask mask) {
+        this.mask = mask;
+        final int slotCount = mask.slotCount();
+        final String suffix = slotCount > 0
+                ? literals(mask, mask.slotIndices[slotCount - 1] + 1, mask.maskChars.length)
+                : "";
+        spans = new MaskLiteralSpan[slotCount];
+        lastSpans = new MaskLiteralSpan[slotCount];
+        firstSpans = mask.reverseFill ? new MaskLiteralSpan[slotCount] : null;
+        for (int slot = 0; slot < slotCount; slot++) {
+            final String slotSuffix = slot == slotCount - 1 ? suffix : "";
+            final int literalsStart = slot > 0 ? mask.slotIndices[slot - 1] + 1 : 0;
+            final String prefix = literals(mask, literalsStart, mask.slotIndices[slot]);
+            if (!prefix.isEmpty() || !slotSuffix.isEmpty()) {
+                spans[slot] = new MaskLiteralSpan(prefix, slotSuffix);
+            }
+            final String lastSuffix = slot == slotCount - 1
+                    ? suffix
+                    : literals(mask, mask.slotIndices[slot] + 1, mask.slotIndices[slot + 1]);
+            lastSpans[slot] = lastSuffix.equals(slotSuffix) ? spans[slot] : new MaskLiteralSpan(prefix, lastSuffix);
+            if (firstSpans != null && !slotSuffix.isEmpty()) {
+                firstSpans[slot] = new MaskLiteralSpan("", slotSuffix);
+            }
+        }
+    }
+
+    private static String literals(Mask mask, int start, int end) {
+        return new String(mask.maskChars, start, end - start);
+    }
+}
@@ -26,9 +26,10 @@ package mk.webfactory.dz.maskededittext;
 
 import androidx.annotation.NonNull;
 import android.text.Editable;
-import android.text.TextWatcher;
-import android.widget.EditText;
-import java.lang.ref.WeakReference;
+import android.text.Selection;
+import android.view.inputmethod.BaseInputConnection;
+
+import java.util.concurrent.Executor;
 
 import static mk.webfactory.dz.maskededittext.MaskUtil.reMaskSubsequentInput;
 
@@ -45,26 +46,41 @@ import static mk.webfactory.dz.maskededittext.MaskUtil.reMaskSubsequentInput;
  * Date   ##/##/####
  * </pre>
  */
-final class MaskEnforcingTextWatcher implements TextWatcher {
-
-    private static final String TAG = "MaskTextWatcher";
+final class MaskEnforcingTextWatcher implements MaskingTextWatcher {
 
-    private final Mask mask;
-    private WeakReference<EditText> editTextWeakReference;
-    private String currentTextMasked = "";
+    private Mask mask;
+    private MaskSelector maskSelector;
+    private MaskMetricsListener metricsListener;
+    private boolean applyingChange;
+    /** True while the view is in a batch edit, the changes are masked at once when it ends. */
+    private boolean inBatchEdit;
+    /** True if a change has not been masked yet because of a batch edit or a composing region. */
+    private boolean changePending;
+    private Executor executor;
+    private Executor mainThreadExecutor;
+    private int minBackgroundChangeLength;
+    /** Incremented on every change, a re-mask computed in the background for an older version is discarded. */
+    private int version;
+    /** True while a change is being re-masked in the background, the state is that of the text before it. */
+    private boolean reMaskPending;
+    /** The text with the change that is being re-masked in the background. */
+    private String pendingText;
+    /** Range of the change in {@link #pendingText}. */
+    private int pendingStart, pendingEnd;
+    /** End of the range that the change replaced in {@link #currentTextMasked}. */
+    private int pendingReplacedEnd;
+    private final TextSelectionBuffer currentTextMasked = new TextSelectionBuffer();
+    private final TextSelectionBuffer rawInput = new TextSelectionBuffer();
+    /** {@link #rawInput} as returned by {@link #getRawInput()}, null if changed since. */
+    private String rawInputSnapshot = "";
 
     /**
      * TextWatcher that applies a mask on the user input.
      *
-     * @param editText The {@link EditText} this watcher is added to. Unfortunately we're not the only ones trying to
-     * modify the user input and the changes overlap.
      * @param mask Mask to be applied on the input.
-     * @param maskCharacter Overridden mask character.
-     * @param enforceMaskLength If set to true trims excess text outside of mask.
      */
-    MaskEnforcingTextWatcher(EditText editText, String mask, char maskCharacter, boolean enforceMaskLength) {
-        this.mask = new Mask(mask, maskCharacter, enforceMaskLength);
-        editTextWeakReference = new WeakReference<>(editText);
+    MaskEnforcingTextWatcher(Mask mask) {
+        this.mask = mask;
     }
 
     /**
@@ -72,8 +88,95 @@ final class MaskEnforcingTextWatcher implements TextWatcher {
      *
      * @return Raw user input without mask characters
      */
-    @NonNull public String getRawInput() {
-        return MaskUtil.stripMask(currentTextMasked, mask);
+    @NonNull
+    @Override
+    public String getRawInput() {
+        if (rawInputSnapshot == null) {
+            rawInputSnapshot = rawInput.toString();
+        }
+        return rawInputSnapshot;
+    }
+
+    @Override
+    public Mask getMask() {
+        return mask;
+    }
+
+    @Override
+    public int getMaskedLength() {
+        return currentTextMasked.length();
+    }
+
+    /**
+     * Applies {@code mask} on the raw input and updates {@code editable} with a single replacement of the range
+     * that differs. Does nothing if the mask is equal to the current one.
+     */
+    @Override
+    public void setMask(Mask mask, Editable editable) {
+        maskPendingChange(editable);
+        if (reMask(mask, currentTextMasked.length())) {
+            applyChange(editable, currentTextMasked, 0);
+        }
+    }
+
+    /**
+     * Selects the mask by the raw input on every change from now on, starting with the current raw input.
+     *
+     * @param maskSelector Candidate masks, null to keep the current mask
+     */
+    @Override
+    public void setMaskSelector(MaskSelector maskSelector, Editable editable) {
+        this.maskSelector = maskSelector;
+        if (maskSelector != null) {
+            setMask(maskSelector.select(rawInput), editable);
+        }
+    }
+
+    @Override
+    public void setMetricsListener(MaskMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Re-masks changes of at least {@code minChangeLength} characters on {@code executor}. The result is applied
+     * on {@code mainThreadExecutor} unless the text has been changed in the meantime, in which case the newer
+     * change is masked together with it.
+     */
+    @Override
+    public void setExecutor(Executor executor, int minChangeLength, Executor mainThreadExecutor) {
+        this.executor = executor;
+        this.minBackgroundChangeLength = minChangeLength;
+        this.mainThreadExecutor = mainThreadExecutor;
+    }
+
+    /**
+     * Defers masking while {@code inBatchEdit} is true, so that the edits of an IME batch are masked at once
+     * and the IME does not see the text change under the offsets of its own edits.
+     */
+    @Override
+    public void setInBatchEdit(boolean inBatchEdit, Editable editable) {
+        this.inBatchEdit = inBatchEdit;
+        if (!inBatchEdit) {
+            maskPendingChange(editable);
+        }
+    }
+
+    @Override
+    public boolean hasPendingChange() {
+        return changePending || reMaskPending;
+    }
+
+    /**
+     * Masks a deferred change, e.g. once the composing region has been removed without a text change. A change
+     * that is being re-masked in the background is masked right away and the background result discarded.
+     */
+    @Override
+    public void maskPendingChange(Editable editable) {
+        if (reMaskPending) {
+            maskChange(editable, false);
+        } else if (changePending) {
+            afterTextChanged(editable);
+        }
     }
 
     @Override
@@ -86,19 +189,265 @@ final class MaskEnforcingTextWatcher implements TextWatcher {
 
     @Override
     public void afterTextChanged(Editable editable) {
-        final String afterText = editable.toString();
-        if (MaskUtil.isInputMasked(afterText, mask)) {
-            currentTextMasked = afterText;
+        if (!applyingChange) {
+            version++;
+        }
+        //composing text is masked once committed, masking it would replace the region the IME is composing in
+        if (!applyingChange && (inBatchEdit || BaseInputConnection.getComposingSpanStart(editable) != -1)) {
+            changePending = true;
             return;
         }
+        maskChange(editable, executor != null && !applyingChange);
+    }
+
+    /** @param inBackground True to re-mask the change on {@link #executor} if it is long enough */
+    private void maskChange(Editable editable, boolean inBackground) {
+        changePending = false;
+        if (reMaskPending) {
+            reMaskPending = false;
+            if (maskSeparateEdit(editable)) {
+                return;
+            }
+        }
 
-        TextSelectionWrapper textSelectionWrapper = reMaskSubsequentInput(currentTextMasked, afterText, mask);
-        currentTextMasked = textSelectionWrapper.text;
+        //re-entrant calls are part of the apply time of the edit that caused them
+        final MaskMetricsListener listener = applyingChange ? null : metricsListener;
+        final long startNanos = listener != null ? System.nanoTime() : 0;
+        final int textCapacity = currentTextMasked.chars.length;
+        final int rawCapacity = rawInput.chars.length;
 
-        EditText editText = editTextWeakReference.get();
-        if (editText != null) {
-            editText.setText(textSelectionWrapper.text);
-            editText.setSelection(textSelectionWrapper.selection);
+        final int changeStart = MaskUtil.commonPrefixLength(currentTextMasked, editable);
+        if (applyingChange || MaskUtil.isInputMasked(editable, mask, changeStart)) {
+            final boolean switchedMask = takeOver(editable, changeStart) && !applyingChange && maskSelector != null
+                    && reMask(maskSelector.select(rawInput), Selection.getSelectionEnd(editable));
+            final long applyNanos = listener != null ? System.nanoTime() : 0;
+            if (switchedMask) {
+                applyChange(editable, currentTextMasked, 0);
+            }
+            if (listener != null) {
+                report(listener, startNanos, applyNanos, editable.length() - changeStart, true,
+                        textCapacity, rawCapacity);
+            }
+            return;
+        }
+
+        if (inBackground && !mask.reverseFill && editable.length() - changeStart >= minBackgroundChangeLength) {
+            reMaskInBackground(editable, changeStart);
+            return;
+        }
+        int reMaskedFrom = reMaskSubsequentInput(currentTextMasked, rawInput, editable, changeStart, mask);
+        rawInputSnapshot = null;
+        if (maskSelector != null && reMask(maskSelector.select(rawInput), currentTextMasked.selection)) {
+            reMaskedFrom = 0;
+        }
+        final long applyNanos = listener != null ? System.nanoTime() : 0;
+        applyChange(editable, currentTextMasked, reMaskedFrom);
+        if (listener != null) {
+            report(listener, startNanos, applyNanos, currentTextMasked.length() - reMaskedFrom, false,
+                    textCapacity, rawCapacity);
+        }
+    }
+
+    /**
+     * Re-masks copies of the current state against a snapshot of {@code editable} on {@link #executor}. The
+     * editable keeps the unmasked change until the result is applied on the main thread.
+     */
+    private void reMaskInBackground(final Editable editable, final int changeStart) {
+        final int version = this.version;
+        final Mask mask = this.mask;
+        final String text = editable.toString();
+        int replacedEnd = currentTextMasked.length();
+        int end = text.length();
+        while (replacedEnd > changeStart && end > changeStart
+                && currentTextMasked.charAt(replacedEnd - 1) == text.charAt(end - 1)) {
+            replacedEnd--;
+            end--;
+        }
+        pendingText = text;
+        pendingStart = changeStart;
+        pendingEnd = end;
+        pendingReplacedEnd = replacedEnd;
+        reMaskPending = true;
+
+        final TextSelectionBuffer textMasked = new TextSelectionBuffer(text.length());
+        textMasked.set(currentTextMasked);
+        final TextSelectionBuffer rawInput = new TextSelectionBuffer(text.length());
+        rawInput.set(this.rawInput);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int reMaskedFrom = reMaskSubsequentInput(textMasked, rawInput, text, changeStart, mask);
+                mainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (reMaskPending && version == MaskEnforcingTextWatcher.this.version) {
+                            applyBackgroundReMask(editable, textMasked, rawInput, reMaskedFrom);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyBackgroundReMask(Editable editable, TextSelectionBuffer textMasked,
+            TextSelectionBuffer rawInput, int reMaskedFrom) {
+        reMaskPending = false;
+        pendingText = null;
+        currentTextMasked.set(textMasked);
+        currentTextMasked.selection = textMasked.selection;
+        this.rawInput.set(rawInput);
+        rawInputSnapshot = null;
+        if (maskSelector != null && reMask(maskSelector.select(this.rawInput), currentTextMasked.selection)) {
+            reMaskedFrom = 0;
+        }
+        applyChange(editable, currentTextMasked, reMaskedFrom);
+    }
+
+    /**
+     * Masks an edit made apart from the change that was being re-masked in the background together with that
+     * change, in place. The two are masked one after the other, starting with the one further in the text so
+     * that the range of the other one stays where it was. An edit that overlaps the change or is next to it
+     * forms a single change with it and is left to the caller.
+     *
+     * @return False if the edit is not apart from the pending change
+     */
+    private boolean maskSeparateEdit(Editable editable) {
+        final String pending = pendingText;
+        pendingText = null;
+        final int start = MaskUtil.commonPrefixLength(pending, editable);
+        int replacedEnd = pending.length();
+        int end = editable.length();
+        while (replacedEnd > start && end > start && pending.charAt(replacedEnd - 1) == editable.charAt(end - 1)) {
+            replacedEnd--;
+            end--;
+        }
+        final boolean before = replacedEnd < pendingStart;
+        if (start == end && start == replacedEnd || !before && start <= pendingEnd) {
+            return false;
+        }
+
+        final StringBuilder next = new StringBuilder(editable.length());
+        int selection;
+        if (before) {
+            reMaskSubsequentInput(currentTextMasked, rawInput, pending, pendingStart, mask);
+            next.append(currentTextMasked, 0, start).append(editable, start, end)
+                    .append(currentTextMasked, replacedEnd, currentTextMasked.length());
+            reMaskSubsequentInput(currentTextMasked, rawInput, next, start, mask);
+            selection = currentTextMasked.selection;
+        } else {
+            //the range of the edit in the text before the change
+            final int shift = pendingEnd - pendingReplacedEnd;
+            next.append(currentTextMasked, 0, start - shift).append(editable, start, end)
+                    .append(currentTextMasked, replacedEnd - shift, currentTextMasked.length());
+            reMaskSubsequentInput(currentTextMasked, rawInput, next, start - shift, mask);
+            //counted from the end of the raw input which the change before the edit does not move
+            final int rawSelection = mask.rawIndexAt(currentTextMasked.selection) - rawInput.length();
+            next.setLength(0);
+            next.append(currentTextMasked, 0, pendingStart).append(pending, pendingStart, pendingEnd)
+                    .append(currentTextMasked, pendingReplacedEnd, currentTextMasked.length());
+            reMaskSubsequentInput(currentTextMasked, rawInput, next, pendingStart, mask);
+            selection = Math.min(mask.maskedIndexAfter(rawSelection + rawInput.length()), currentTextMasked.length());
+        }
+        currentTextMasked.selection = selection;
+        rawInputSnapshot = null;
+        if (maskSelector != null) {
+            reMask(maskSelector.select(rawInput), selection);
+        }
+        applyChange(editable, currentTextMasked, 0);
+        return true;
+    }
+
+    /**
+     * @param textCapacity Capacity of {@link #currentTextMasked} before the edit
+     * @param rawCapacity Capacity of {@link #rawInput} before the edit
+     */
+    private void report(MaskMetricsListener listener, long startNanos, long applyNanos, int processedChars,
+            boolean alreadyMasked, int textCapacity, int rawCapacity) {
+        final long endNanos = System.nanoTime();
+        long allocatedBytes = 0;
+        if (currentTextMasked.chars.length != textCapacity) {
+            allocatedBytes += 2L * currentTextMasked.chars.length;
+        }
+        if (rawInput.chars.length != rawCapacity) {
+            allocatedBytes += 2L * rawInput.chars.length;
+        }
+        listener.onEditMasked(applyNanos - startNanos, endNanos - applyNanos, processedChars, alreadyMasked,
+                allocatedBytes);
+    }
+
+    /**
+     * Accepts {@code editable} as the current masked text, updating the state after {@code changeStart}.
+     *
+     * @return False if there was no change
+     */
+    private boolean takeOver(Editable editable, int changeStart) {
+        final int length = editable.length();
+        if (changeStart == length && changeStart == currentTextMasked.length()) {
+            return false;
+        }
+        currentTextMasked.setLength(changeStart);
+        currentTextMasked.append(editable, changeStart, length);
+        //a reverse-filled text is aligned with the end of the mask, every raw character may have moved
+        final int strippedFrom = mask.reverseFill ? 0 : changeStart;
+        rawInput.setLength(mask.rawIndexAt(strippedFrom));
+        MaskUtil.appendStripped(editable, strippedFrom, length, mask, strippedFrom, rawInput);
+        rawInputSnapshot = null;
+        return true;
+    }
+
+    /**
+     * Masks the raw input with {@code mask} into {@link #currentTextMasked}, keeping the selection after the
+     * same raw character. Excess raw input is dropped if the new mask enforces its length.
+     *
+     * @param selection Selection in the current masked text
+     * @return False if {@code mask} is equal to the current one and nothing was done
+     */
+    private boolean reMask(Mask mask, int selection) {
+        if (this.mask.equals(mask)) {
+            return false;
+        }
+        final boolean selectionAtEnd = selection < 0 || selection >= currentTextMasked.length();
+        final int rawSelection = selectionAtEnd ? 0
+                : this.mask.rawIndexAt(selection, currentTextMasked.length(), rawInput.length());
+        this.mask = mask;
+        if (mask.slotClasses != null) {
+            MaskUtil.filterRawInput(rawInput, mask);
+        }
+        currentTextMasked.clear();
+        MaskUtil.appendMasked(rawInput, 0, rawInput.length(), mask, 0, currentTextMasked);
+        final int length = currentTextMasked.length();
+        rawInput.setLength(mask.rawCountOf(length));
+        currentTextMasked.selection = selectionAtEnd ? length
+                : mask.selectionAfter(Math.min(rawSelection, rawInput.length()), length, rawInput.length());
+        rawInputSnapshot = null;
+        return true;
+    }
+
+    /**
+     * Replaces only the range of {@code editable} that differs from {@code text} so that the spans, the
+     * composing region and the layout outside of it are preserved. Input filters may still alter the
+     * replacement in which case the filtered content is picked up through the re-entrant callback.
+     */
+    private void applyChange(Editable editable, TextSelectionBuffer text, int start) {
+        final int editableLength = editable.length();
+        final int textLength = text.length();
+        while (start < editableLength && start < textLength && editable.charAt(start) == text.charAt(start)) {
+            start++;
+        }
+        int editableEnd = editableLength;
+        int textEnd = textLength;
+        while (editableEnd > start && textEnd > start && editable.charAt(editableEnd - 1) == text.charAt(textEnd - 1)) {
+            editableEnd--;
+            textEnd--;
+        }
+        if (start != editableEnd || start != textEnd) {
+            applyingChange = true;
+            try {
+                editable.replace(start, editableEnd, text, start, textEnd);
+            } finally {
+                applyingChange = false;
+            }
         }
+        Selection.setSelection(editable, Math.min(text.selection, editable.length()));
     }
 }
\ No newline at end of file
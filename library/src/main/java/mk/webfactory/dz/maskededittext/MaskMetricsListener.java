@@ -0,0 +1,46 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+/**
+ * Receives the cost of masking every edit of a {@link MaskedEditText}, e.g. to sample it on real devices.
+ * Called on the main thread right after the edit has been masked, so implementations should only record the
+ * values. Nothing is measured while no listener is set.
+ *
+ * @see MaskedEditText#setMaskMetricsListener(MaskMetricsListener)
+ */
+public interface MaskMetricsListener {
+
+    /**
+     * @param reMaskNanos Time spent computing the masked text and the raw input
+     * @param applyNanos Time spent replacing the changed range of the text and setting the selection, including
+     * the other listeners of the text that are notified by the replacement
+     * @param processedChars Number of masked characters that have been re-masked or taken over
+     * @param alreadyMasked True if the edited text already respected the mask and was taken over as is
+     * @param allocatedBytes Estimate of the bytes allocated by the grown text buffers, 0 in the steady state
+     */
+    void onEditMasked(long reMaskNanos, long applyNanos, int processedChars, boolean alreadyMasked,
+            long allocatedBytes);
+}
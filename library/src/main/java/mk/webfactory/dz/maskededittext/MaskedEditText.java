@@ -26,11 +26,20 @@ package mk.webfactory.dz.maskededittext;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.widget.AppCompatEditText;
+import android.text.Layout;
 import android.util.AttributeSet;
+import android.view.Gravity;
+
+import java.util.concurrent.Executor;
 
 import static mk.webfactory.dz.maskededittext.Mask.DEFAULT_MASK_CHARACTER;
 import static mk.webfactory.dz.maskededittext.Mask.DEFAULT_MASK_STRING;
@@ -51,11 +60,24 @@ import static mk.webfactory.dz.maskededittext.Mask.DEFAULT_MASK_STRING;
 public class MaskedEditText extends AppCompatEditText {
 
     static final String TAG = "MaskedEditText";
+    static final char DEFAULT_MASK_HINT_CHARACTER = '_';
 
-    private String maskString;
-    private char maskCharacter;
-    private boolean enforceMaskLength;
-    private MaskEnforcingTextWatcher maskEnforcingTextWatcher;
+    private Mask mask;
+    /**
+     * Mask as configured by the layout attributes, captured on construction. A view created again from the
+     * same layout has it as well, so the saved state only refers to it if the mask has not been changed.
+     */
+    private Mask configuredMask;
+    private MaskSelector maskSelector;
+    private MaskMetricsListener metricsListener;
+    private Executor maskingExecutor;
+    private int minBackgroundChangeLength;
+    private MaskingTextWatcher maskingTextWatcher;
+    private boolean showMaskHint;
+    private char maskHintCharacter = DEFAULT_MASK_HINT_CHARACTER;
+    /** The mask with every slot replaced by the hint character, built again when the applied mask changes. */
+    private char[] maskHint;
+    private Mask maskHintMask;
 
     public MaskedEditText(Context context) {
         super(context);
@@ -73,6 +95,11 @@ public class MaskedEditText extends AppCompatEditText {
     }
 
     private void init(Context context, AttributeSet attrs) {
+        String maskString;
+        char maskCharacter;
+        boolean enforceMaskLength;
+        boolean reverseFill;
+        boolean literalsAsSpans;
         TypedArray a = context.getTheme().obtainStyledAttributes(attrs, R.styleable.MaskedEditText, 0, 0);
         try {
             String maskCharacterString = a.getString(R.styleable.MaskedEditText_maskededittext_maskCharacter);
@@ -89,33 +116,154 @@ public class MaskedEditText extends AppCompatEditText {
             if (maskString == null) {
                 maskString = DEFAULT_MASK_STRING;
             }
+            reverseFill = a.getBoolean(R.styleable.MaskedEditText_maskededittext_reverseFill, false);
+            literalsAsSpans = a.getBoolean(R.styleable.MaskedEditText_maskededittext_literalsAsSpans, false);
+            showMaskHint = a.getBoolean(R.styleable.MaskedEditText_maskededittext_showMaskHint, false);
+            String maskHintCharacterString = a.getString(R.styleable.MaskedEditText_maskededittext_maskHintCharacter);
+            if (maskHintCharacterString != null) {
+                if (maskHintCharacterString.length() != 1) {
+                    throw new IllegalArgumentException(TAG + " - Attribute maskHintCharacter must have length 1");
+                }
+                maskHintCharacter = maskHintCharacterString.charAt(0);
+            }
         } finally {
             a.recycle();
         }
         MaskUtil.ensureMaskContainsMaskCharacter(maskString, maskCharacter);
-        maskEnforcingTextWatcher = new MaskEnforcingTextWatcher(this, maskString, maskCharacter, enforceMaskLength);
-        addTextChangedListener(maskEnforcingTextWatcher);
+        mask = new Mask.Builder()
+                .setMask(maskString)
+                .setMaskCharacter(maskCharacter)
+                .setEnforceMaskLength(enforceMaskLength)
+                .setReverseFill(reverseFill)
+                .buildShared();
+        configuredMask = mask;
+        maskingTextWatcher = createTextWatcher(literalsAsSpans);
+        addTextChangedListener(maskingTextWatcher);
         setText(getText());
     }
 
+    /**
+     * IME edits are bracketed by batch edits, including the removal of the composing region on commit, so the
+     * edits of a batch are masked once when it ends. The watcher is null while the TextView constructor runs.
+     */
+    @Override
+    public void onBeginBatchEdit() {
+        super.onBeginBatchEdit();
+        if (maskingTextWatcher != null) {
+            maskingTextWatcher.setInBatchEdit(true, getText());
+        }
+    }
+
+    @Override
+    public void onEndBatchEdit() {
+        super.onEndBatchEdit();
+        if (maskingTextWatcher != null) {
+            maskingTextWatcher.setInBatchEdit(false, getText());
+        }
+    }
+
+    /** Composing text is masked once committed, or once the composing region is cleared without a commit. */
+    @Override
+    public void clearComposingText() {
+        super.clearComposingText();
+        if (maskingTextWatcher != null) {
+            maskingTextWatcher.maskPendingChange(getText());
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (showMaskHint) {
+            drawMaskHint(canvas);
+        }
+    }
+
+    /**
+     * Draws the part of the mask that has not been filled yet after the text, on top of the same layout so
+     * that a keystroke changes nothing but the start of the hint.
+     */
+    private void drawMaskHint(Canvas canvas) {
+        final Layout layout = getLayout();
+        final Mask mask = maskingTextWatcher.getMask();
+        final int length = length();
+        //a change that is not masked yet would not line up with the masked length
+        if (layout == null || mask.reverseFill || maskingTextWatcher.hasPendingChange()
+                || (length == 0 && getHint() != null)) {
+            return;
+        }
+        if (mask != maskHintMask) {
+            maskHint = mask.maskChars.clone();
+            for (int slotIndex : mask.slotIndices) {
+                maskHint[slotIndex] = maskHintCharacter;
+            }
+            maskHintMask = mask;
+        }
+        final int hintStart = maskingTextWatcher.getMaskedLength();
+        if (hintStart >= maskHint.length) {
+            return;
+        }
+        final int top = getExtendedPaddingTop();
+        final int boxHeight = getHeight() - top - getExtendedPaddingBottom();
+        int verticalOffset = 0;
+        switch (getGravity() & Gravity.VERTICAL_GRAVITY_MASK) {
+            case Gravity.CENTER_VERTICAL:
+                verticalOffset = Math.max(0, (boxHeight - layout.getHeight()) / 2);
+                break;
+            case Gravity.BOTTOM:
+                verticalOffset = Math.max(0, boxHeight - layout.getHeight());
+                break;
+        }
+        final int left = getCompoundPaddingLeft();
+        final Paint paint = getPaint();
+        final int textColor = paint.getColor();
+        canvas.save();
+        canvas.clipRect(left + getScrollX(), top + getScrollY(),
+                getWidth() - getCompoundPaddingRight() + getScrollX(), top + boxHeight + getScrollY());
+        paint.setColor(getCurrentHintTextColor());
+        canvas.drawText(maskHint, hintStart, maskHint.length - hintStart,
+                left + layout.getPrimaryHorizontal(length),
+                top + verticalOffset + layout.getLineBaseline(layout.getLineForOffset(length)), paint);
+        paint.setColor(textColor);
+        canvas.restore();
+    }
+
+    /** The raw input is saved with the state of this view instead of the masked text with its spans. */
+    @Override
+    public boolean getFreezesText() {
+        return false;
+    }
+
     @Override
     public Parcelable onSaveInstanceState() {
+        //the selection saved by TextView has to be the one of the masked text that the raw input belongs to
+        if (maskingTextWatcher.hasPendingChange()) {
+            clearComposingText();
+            maskingTextWatcher.maskPendingChange(getText());
+        }
         Parcelable superState = super.onSaveInstanceState();
         SavedState ss = new SavedState(superState);
-        ss.maskString = this.maskString;
-        ss.maskCharacter = this.maskCharacter;
-        ss.enforceMaskLength = this.enforceMaskLength;
+        ss.rawInput = getRawInput();
+        ss.literalsAsSpans = isLiteralsAsSpans();
+        ss.mask = mask.equals(configuredMask) ? null : mask;
         return ss;
     }
 
+    /** Masks the saved raw input once, the selection is restored afterwards. */
     @Override
     public void onRestoreInstanceState(Parcelable state) {
         SavedState ss = (SavedState) state;
+        this.mask = ss.mask != null ? ss.mask : configuredMask;
+        if (ss.literalsAsSpans != isLiteralsAsSpans()) {
+            replaceTextWatcher(ss.literalsAsSpans);
+            maskingTextWatcher.setMaskSelector(maskSelector, getText());
+        }
+        if (maskSelector == null) {
+            //the text is still the one set on creation, usually empty
+            invalidateMask();
+        }
+        setText(ss.rawInput);
         super.onRestoreInstanceState(ss.getSuperState());
-        this.maskString = ss.maskString;
-        this.maskCharacter = ss.maskCharacter;
-        this.enforceMaskLength = ss.enforceMaskLength;
-        invalidateMask();
     }
 
     /**
@@ -125,19 +273,44 @@ public class MaskedEditText extends AppCompatEditText {
      */
     @NonNull
     public String getRawInput() {
-        return maskEnforcingTextWatcher.getRawInput();
+        return maskingTextWatcher.getRawInput();
     }
 
+    /**
+     * @return Mask that formats the text, the one selected by the raw input if there is a mask selector, e.g.
+     * {@code #####-####} for a variable mask of {@code #####[-####]} once the group is filled
+     */
     public String getMask() {
-        return maskString;
+        return maskingTextWatcher.getMask().getMask();
     }
 
+    /** @return Mask character of the mask that formats the text, see {@link #getMask()} */
     public char getMaskCharacter() {
-        return maskCharacter;
+        return maskingTextWatcher.getMask().getMaskCharacter();
     }
 
+    /** @return True if the mask that formats the text enforces its length, see {@link #getMask()} */
     public boolean isMaskLengthEnforced() {
-        return enforceMaskLength;
+        return maskingTextWatcher.getMask().isMaskLengthEnforced();
+    }
+
+    public MaskSelector getMaskSelector() {
+        return maskSelector;
+    }
+
+    /**
+     * Selects the mask by a prefix of the raw input on every change, e.g. to tell card types apart.
+     * The selector is not saved with the instance state and is cleared by setting a mask, removing the mask
+     * or changing the mask length enforcement.
+     *
+     * @param maskSelector Candidate masks, null to go back to the mask set before
+     */
+    public void setMaskSelector(MaskSelector maskSelector) {
+        this.maskSelector = maskSelector;
+        maskingTextWatcher.setMaskSelector(maskSelector, getText());
+        if (maskSelector == null) {
+            invalidateMask();
+        }
     }
 
     /**
@@ -147,8 +320,10 @@ public class MaskedEditText extends AppCompatEditText {
      * @throws IllegalStateException If the mask does not contain a maskCharacter (default '#')
      */
     public void setMask(String maskString) {
-        this.maskString = maskString != null ? maskString : "";
-        MaskUtil.ensureMaskContainsMaskCharacter(maskString, maskCharacter);
+        maskString = maskString != null ? maskString : "";
+        MaskUtil.ensureMaskContainsMaskCharacter(maskString, mask.getMaskCharacter());
+        this.mask = new Mask.Builder(mask).setMask(maskString).buildShared();
+        clearMaskSelector();
         invalidateMask();
     }
 
@@ -159,18 +334,143 @@ public class MaskedEditText extends AppCompatEditText {
      * @throws IllegalStateException If the mask does not contain the maskCharacter
      */
     public void setMask(String maskString, char maskCharacter) throws IllegalStateException {
-        this.maskString = maskString != null ? maskString : "";
-        this.maskCharacter = maskCharacter;
+        maskString = maskString != null ? maskString : "";
         MaskUtil.ensureMaskContainsMaskCharacter(maskString, maskCharacter);
+        this.mask = new Mask.Builder(mask).setMask(maskString).setMaskCharacter(maskCharacter).buildShared();
+        clearMaskSelector();
+        invalidateMask();
+    }
+
+    /**
+     * Set a mask to be applied on the user input, e.g. one with placeholders that accept only digits or letters.
+     * <pre>
+     * new Mask.Builder().setMask("00/00").addPlaceholder('0', CharClass.DIGIT).build()
+     * </pre>
+     *
+     * @throws IllegalStateException If the mask is null
+     */
+    public void setMask(Mask mask) {
+        if (mask == null) {
+            throw new IllegalStateException("Mask not defined!");
+        }
+        this.mask = mask;
+        clearMaskSelector();
+        invalidateMask();
+    }
+
+    /**
+     * Set a mask of variable length, e.g. {@code #####[-####]} for a postal code with an optional suffix.
+     * Same as a {@link #setMaskSelector(MaskSelector) mask selector} with the variable mask only.
+     *
+     * @throws IllegalStateException If the mask is null
+     */
+    public void setMask(VariableMask mask) {
+        setMaskSelector(new MaskSelector.Builder(mask).build());
+    }
+
+    /**
+     * If set to true fills the mask from right to left, e.g. for amounts where an input of {@code 12345} is
+     * shown as {@code 123.45} with a mask of {@code #,###,###.##}.
+     */
+    public void setReverseFill(boolean reverseFill) {
+        this.mask = new Mask.Builder(mask).setReverseFill(reverseFill).buildShared();
+        clearMaskSelector();
         invalidateMask();
     }
 
+    public boolean isReverseFill() {
+        return maskingTextWatcher.getMask().isReverseFill();
+    }
+
+    /**
+     * Reports the cost of masking every edit, see {@link MaskMetricsListener}.
+     *
+     * @param metricsListener Listener, null to stop measuring
+     */
+    public void setMaskMetricsListener(@Nullable MaskMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        maskingTextWatcher.setMetricsListener(metricsListener);
+    }
+
+    /**
+     * Re-masks changes of at least {@code minChangeLength} characters, e.g. a large paste or a long
+     * {@code setText}, on {@code executor} instead of the main thread. The change stays unmasked and
+     * {@link #getRawInput()} returns the previous raw input until the result is applied, a result that an
+     * edit made in the meantime has outdated is discarded. Smaller changes are masked in place.
+     * Not used if the literals are drawn as spans.
+     *
+     * @param executor Executor, null to mask every change in place
+     */
+    public void setMaskingExecutor(@Nullable Executor executor, int minChangeLength) {
+        this.maskingExecutor = executor;
+        this.minBackgroundChangeLength = minChangeLength;
+        maskingTextWatcher.maskPendingChange(getText());
+        setTextWatcherExecutor();
+    }
+
+    private void setTextWatcherExecutor() {
+        final Executor mainThreadExecutor = maskingExecutor == null ? null : new Executor() {
+            private final Handler handler = new Handler(Looper.getMainLooper());
+
+            @Override
+            public void execute(@NonNull Runnable command) {
+                handler.post(command);
+            }
+        };
+        maskingTextWatcher.setExecutor(maskingExecutor, minBackgroundChangeLength, mainThreadExecutor);
+    }
+
+    /**
+     * If set to true draws the part of the mask that has not been filled yet after the text, e.g.
+     * {@code 12/__/____} for a mask of {@code ##/##/####}, in the hint text color. Not drawn for reverse-filled
+     * masks or over the hint of an empty field.
+     */
+    public void setShowMaskHint(boolean showMaskHint) {
+        this.showMaskHint = showMaskHint;
+        invalidate();
+    }
+
+    public boolean isShowMaskHint() {
+        return showMaskHint;
+    }
+
+    /** Character drawn in the mask hint in place of every slot that has not been filled, '_' by default. */
+    public void setMaskHintCharacter(char maskHintCharacter) {
+        this.maskHintCharacter = maskHintCharacter;
+        maskHintMask = null;
+        invalidate();
+    }
+
+    public char getMaskHintCharacter() {
+        return maskHintCharacter;
+    }
+
+    /**
+     * If set to true the text holds the raw input only and the literals of the mask are drawn with spans
+     * around it. {@link #getText()} is then the raw input and an edit does not move any text, e.g. for long
+     * masks that are edited in the middle. Off by default.
+     */
+    public void setLiteralsAsSpans(boolean literalsAsSpans) {
+        if (literalsAsSpans == isLiteralsAsSpans()) {
+            return;
+        }
+        maskingTextWatcher.maskPendingChange(getText());
+        final String rawInput = maskingTextWatcher.getRawInput();
+        replaceTextWatcher(literalsAsSpans);
+        setText(rawInput);
+        maskingTextWatcher.setMaskSelector(maskSelector, getText());
+    }
+
+    public boolean isLiteralsAsSpans() {
+        return maskingTextWatcher instanceof LiteralSpanTextWatcher;
+    }
+
     /**
      * Removes mask making this behave just like regular {@link android.widget.EditText}
      */
     public void removeMask() {
-        this.maskString = Mask.DEFAULT_MASK_STRING;
-        this.enforceMaskLength = false;
+        this.mask = new Mask.Builder(mask).setMask(DEFAULT_MASK_STRING).setEnforceMaskLength(false).buildShared();
+        clearMaskSelector();
         invalidateMask();
     }
 
@@ -179,25 +479,45 @@ public class MaskedEditText extends AppCompatEditText {
      * Overrides InputFilter.LengthFilter.
      */
     public void setEnforceMaskLength(boolean enforceMaskLength) {
-        this.enforceMaskLength = enforceMaskLength;
+        this.mask = new Mask.Builder(mask).setEnforceMaskLength(enforceMaskLength).buildShared();
+        clearMaskSelector();
         invalidateMask();
     }
 
+    private void clearMaskSelector() {
+        if (maskSelector != null) {
+            maskSelector = null;
+            maskingTextWatcher.setMaskSelector(null, getText());
+        }
+    }
+
+    private MaskingTextWatcher createTextWatcher(boolean literalsAsSpans) {
+        return literalsAsSpans ? new LiteralSpanTextWatcher(mask) : new MaskEnforcingTextWatcher(mask);
+    }
+
+    private void replaceTextWatcher(boolean literalsAsSpans) {
+        removeTextChangedListener(maskingTextWatcher);
+        maskingTextWatcher = createTextWatcher(literalsAsSpans);
+        maskingTextWatcher.setMetricsListener(metricsListener);
+        setTextWatcherExecutor();
+        addTextChangedListener(maskingTextWatcher);
+    }
+
+    /** Re-masks the raw input in place, a no-op if the mask definition has not changed. */
     private void invalidateMask() {
-        final CharSequence rawInput = maskEnforcingTextWatcher.getRawInput();
-        removeTextChangedListener(maskEnforcingTextWatcher);
-        setText("");
-        maskEnforcingTextWatcher = new MaskEnforcingTextWatcher(this, maskString, maskCharacter, enforceMaskLength);
-        addTextChangedListener(maskEnforcingTextWatcher);
-        setText(rawInput);
-        setSelection(length());
+        maskingTextWatcher.setMask(mask, getText());
     }
 
+    /**
+     * Raw input and mask of the view. The mask is written only if it has been changed since the view was
+     * configured, a few bytes for the usual field with a mask from the layout.
+     */
     private static class SavedState extends BaseSavedState {
 
-        String maskString;
-        char maskCharacter;
-        boolean enforceMaskLength;
+        String rawInput;
+        boolean literalsAsSpans;
+        /** Null if it is the configured mask. */
+        Mask mask;
 
         SavedState(Parcelable superState) {
             super(superState);
@@ -205,17 +525,42 @@ public class MaskedEditText extends AppCompatEditText {
 
         private SavedState(Parcel in) {
             super(in);
-            maskString = in.readString();
-            maskCharacter = (char) in.readInt();
-            enforceMaskLength = in.readByte() == 1;
+            rawInput = in.readString();
+            literalsAsSpans = in.readByte() == 1;
+            if (in.readByte() == 1) {
+                final Mask.Builder builder = new Mask.Builder()
+                        .setMask(in.readString())
+                        .setMaskCharacter((char) in.readInt())
+                        .setEnforceMaskLength(in.readByte() == 1)
+                        .setReverseFill(in.readByte() == 1);
+                final char[] placeholders = in.createCharArray();
+                final int[] placeholderClasses = in.createIntArray();
+                for (int i = 0; i < placeholders.length; i++) {
+                    builder.addPlaceholder(placeholders[i], CharClass.values()[placeholderClasses[i]]);
+                }
+                mask = builder.buildShared();
+            }
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
-            out.writeString(maskString);
-            out.writeInt(maskCharacter);
-            out.writeByte((byte) (enforceMaskLength ? 1 : 0));
+            out.writeString(rawInput);
+            out.writeByte((byte) (literalsAsSpans ? 1 : 0));
+            out.writeByte((byte) (mask != null ? 1 : 0));
+            if (mask == null) {
+                return;
+            }
+            out.writeString(mask.mask);
+            out.writeInt(mask.maskCharacter);
+            out.writeByte((byte) (mask.enforceMaskLength ? 1 : 0));
+            out.writeByte((byte) (mask.reverseFill ? 1 : 0));
+            out.writeCharArray(mask.placeholders);
+            final int[] placeholderClasses = new int[mask.placeholderClasses.length];
+            for (int i = 0; i < placeholderClasses.length; i++) {
+                placeholderClasses[i] = mask.placeholderClasses[i].ordinal();
+            }
+            out.writeIntArray(placeholderClasses);
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Dimitar Zabaznoski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package mk.webfactory.dz.maskededittext;
+
+import android.text.Editable;
+import android.text.TextWatcher;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+
+/** TextWatcher that keeps the text of a {@link MaskedEditText} in line with its mask. */
+interface MaskingTextWatcher extends TextWatcher {
+
+    /** @return Raw user input without mask characters */
+    @NonNull
+    String getRawInput();
+
+    /** @return Mask currently applied, the one selected by the raw input if there is a mask selector */
+    Mask getMask();
+
+    /** @return Number of characters of the mask that the text shows, literals included */
+    int getMaskedLength();
+
+    /** Applies {@code mask} on the raw input, does nothing if the mask is equal to the current one. */
+    void setMask(Mask mask, Editable editable);
+
+    /** @param maskSelector Candidate masks selected by the raw input on every change, null to keep the current mask */
+    void setMaskSelector(MaskSelector maskSelector, Editable editable);
+
+    void setMetricsListener(MaskMetricsListener metricsListener);
+
+    /**
+     * Masks changes of at least {@code minChangeLength} characters on {@code executor} if the watcher re-masks
+     * the text, applying the result on {@code mainThreadExecutor}. A null executor masks every change in place.
+     */
+    void setExecutor(Executor executor, int minChangeLength, Executor mainThreadExecutor);
+
+    /** Defers masking while {@code inBatchEdit} is true. */
+    void setInBatchEdit(boolean inBatchEdit, Editable editable);
+
+    /** @return True if a change has been deferred and the text is not masked yet */
+    boolean hasPendingChange();
+
+    /** Masks a deferred change, e.g. once the composing region has been removed without a text change. */
+    void maskPendingChange(Editable editable);
+}
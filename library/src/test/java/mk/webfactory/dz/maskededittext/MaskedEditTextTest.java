@@ -25,13 +25,30 @@
 package mk.webfactory.dz.maskededittext;
 
 import android.app.Activity;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+import androidx.annotation.NonNull;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Acceptance criteria:
@@ -78,6 +95,287 @@ public class MaskedEditTextTest {
         assertEquals("1234", maskedEditText.getRawInput());
     }
 
+    @Test
+    public void testRawInputCachedUntilChange() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        maskedEditText.setText("123");
+
+        final String rawInput = maskedEditText.getRawInput();
+        assertSame(rawInput, maskedEditText.getRawInput());
+
+        maskedEditText.append("4");
+        assertEquals("1234", maskedEditText.getRawInput());
+    }
+
+    @Test
+    public void testChangeMask() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        maskedEditText.setText("1234");
+
+        maskedEditText.setMask("# # #");
+        assertEquals("1 2 3", maskedEditText.getText().toString());
+        assertEquals("123", maskedEditText.getRawInput());
+        assertEquals(5, maskedEditText.getSelectionStart());
+
+        maskedEditText.setEnforceMaskLength(false);
+        assertEquals("1 2 3", maskedEditText.getText().toString());
+    }
+
+    @Test
+    public void testSameMaskIsNoOp() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        maskedEditText.setText("123");
+        final String rawInput = maskedEditText.getRawInput();
+
+        setMask(DEFAULT_MASK, maskedEditText);
+
+        assertSame(rawInput, maskedEditText.getRawInput());
+        assertEquals("12-3", maskedEditText.getText().toString());
+    }
+
+    @Test
+    public void testSelectMaskByPrefix() throws Exception {
+        maskedEditText.setMaskSelector(new MaskSelector.Builder(Mask.from("#### #### #### ####"))
+                .add("34", Mask.from("#### ###### #####"))
+                .build());
+
+        maskedEditText.setText("3412345678901234");
+        assertEquals("3412 345678 90123", maskedEditText.getText().toString());
+        assertEquals("#### ###### #####", maskedEditText.getMask());
+
+        maskedEditText.getText().replace(0, 1, "4");
+        assertEquals("4412 3456 7890 123", maskedEditText.getText().toString());
+        assertEquals("441234567890123", maskedEditText.getRawInput());
+
+        setMask(DEFAULT_MASK, maskedEditText);
+        assertEquals("44-12", maskedEditText.getText().toString());
+    }
+
+    @Test
+    public void testTypedPlaceholders() throws Exception {
+        maskedEditText.setMask(new Mask.Builder()
+                .setMask("00/00")
+                .addPlaceholder('0', CharClass.DIGIT)
+                .build());
+
+        maskedEditText.setText("1a2b34");
+        assertEquals("12/34", maskedEditText.getText().toString());
+
+        maskedEditText.setEnforceMaskLength(false);
+        maskedEditText.append("x5");
+        assertEquals("12/34x5", maskedEditText.getText().toString());
+    }
+
+    @Test
+    public void testVariableMask() throws Exception {
+        maskedEditText.setMask(new Mask.Builder().setMask("#####[-####]").buildVariable());
+
+        maskedEditText.setText("12345");
+        assertEquals("12345", maskedEditText.getText().toString());
+
+        maskedEditText.append("67");
+        assertEquals("12345-67", maskedEditText.getText().toString());
+        assertEquals("#####-####", maskedEditText.getMask());
+        assertTrue(maskedEditText.isMaskLengthEnforced());
+        assertEquals("1234567", maskedEditText.getRawInput());
+    }
+
+    @Test
+    public void testReverseFill() throws Exception {
+        maskedEditText.setMask("#,###,###.##");
+        maskedEditText.setReverseFill(true);
+
+        maskedEditText.setText("1234");
+        assertEquals("12.34", maskedEditText.getText().toString());
+
+        maskedEditText.append("5");
+        assertEquals("123.45", maskedEditText.getText().toString());
+        assertEquals("12345", maskedEditText.getRawInput());
+    }
+
+    @Test
+    public void testReverseFillMaskSwappedMidText() throws Exception {
+        final Mask dotThousands = new Mask.Builder().setMask("#,###,###.##").setReverseFill(true).build();
+        final Mask commaDecimals = new Mask.Builder().setMask("#.###.###,##").setReverseFill(true).build();
+        maskedEditText.setMaskSelector(new MaskSelector.Builder(dotThousands).add("12", commaDecimals).build());
+
+        maskedEditText.setText("345678");
+        assertEquals("3,456.78", maskedEditText.getText().toString());
+
+        maskedEditText.getText().insert(0, "12");
+        assertEquals("123.456,78", maskedEditText.getText().toString());
+        assertEquals(2, maskedEditText.getSelectionEnd());
+    }
+
+    @Test
+    public void testMetricsListener() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        final int[] edits = new int[2];
+        maskedEditText.setMaskMetricsListener(new MaskMetricsListener() {
+            @Override
+            public void onEditMasked(long reMaskNanos, long applyNanos, int processedChars, boolean alreadyMasked,
+                    long allocatedBytes) {
+                edits[alreadyMasked ? 1 : 0]++;
+            }
+        });
+
+        maskedEditText.setText("123");
+        maskedEditText.append("4");
+        maskedEditText.setMaskMetricsListener(null);
+        maskedEditText.append("5");
+
+        assertEquals(1, edits[0]);
+        assertEquals(1, edits[1]);
+    }
+
+    @Test
+    public void testTypingSessionWithinBudget() throws Exception {
+        setMask(new Mask("#### #### #### ####", '#', true), maskedEditText);
+        final long[] totals = new long[3];
+        maskedEditText.setMaskMetricsListener(new MaskMetricsListener() {
+            @Override
+            public void onEditMasked(long reMaskNanos, long applyNanos, int processedChars, boolean alreadyMasked,
+                    long allocatedBytes) {
+                totals[0]++;
+                totals[1] += processedChars;
+                totals[2] += allocatedBytes;
+            }
+        });
+        //the first session grows the buffers
+        typeAndDelete("4111111111111111");
+        Arrays.fill(totals, 0);
+
+        for (int i = 0; i < 10; i++) {
+            typeAndDelete("4111111111111111");
+        }
+
+        assertEquals(0, totals[2]);
+        assertTrue(totals[1] + " characters masked in " + totals[0] + " edits", totals[1] <= 2 * totals[0]);
+    }
+
+    @Test
+    public void testComposingTextMaskedOnceFinished() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        final InputConnection inputConnection = maskedEditText.onCreateInputConnection(new EditorInfo());
+
+        inputConnection.setComposingText("12", 1);
+        inputConnection.setComposingText("123", 1);
+        assertEquals("123", maskedEditText.getText().toString());
+
+        inputConnection.finishComposingText();
+        assertEquals("12-3", maskedEditText.getText().toString());
+        assertEquals("123", maskedEditText.getRawInput());
+    }
+
+    @Test
+    public void testBatchEditMaskedAtOnce() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        final InputConnection inputConnection = maskedEditText.onCreateInputConnection(new EditorInfo());
+        final int[] edits = new int[1];
+        maskedEditText.setMaskMetricsListener(new MaskMetricsListener() {
+            @Override
+            public void onEditMasked(long reMaskNanos, long applyNanos, int processedChars, boolean alreadyMasked,
+                    long allocatedBytes) {
+                edits[0]++;
+            }
+        });
+
+        inputConnection.beginBatchEdit();
+        inputConnection.commitText("1", 1);
+        inputConnection.commitText("23", 1);
+        assertEquals(0, edits[0]);
+        inputConnection.endBatchEdit();
+
+        assertEquals("12-3", maskedEditText.getText().toString());
+        assertEquals(1, edits[0]);
+    }
+
+    @Test
+    public void testLargeChangeMaskedInBackground() throws Exception {
+        setMask(new Mask("####-####-####-####", '#', false), maskedEditText);
+        final List<Runnable> background = new ArrayList<>();
+        maskedEditText.setMaskingExecutor(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                background.add(command);
+            }
+        }, 8);
+
+        maskedEditText.setText("123");
+        assertEquals("123", maskedEditText.getText().toString());
+        assertEquals(0, background.size());
+
+        maskedEditText.getText().insert(2, "abcdefghij");
+        assertEquals("12abcdefghij3", maskedEditText.getText().toString());
+        assertEquals("123", maskedEditText.getRawInput());
+        background.remove(0).run();
+        ShadowLooper.idleMainLooper();
+        assertEquals("12ab-cdef-ghij-3", maskedEditText.getText().toString());
+        assertEquals("12abcdefghij3", maskedEditText.getRawInput());
+
+        //an edit made in the meantime discards the result and is masked together with the change
+        maskedEditText.getText().insert(0, "0123456789");
+        maskedEditText.getText().insert(0, "9");
+        background.remove(0).run();
+        ShadowLooper.idleMainLooper();
+        assertEquals("9012345678912ab-cdef-ghij-3", maskedEditText.getText().toString());
+        background.remove(0).run();
+        ShadowLooper.idleMainLooper();
+        assertEquals("9012-3456-7891-2abcdefghij3", maskedEditText.getText().toString());
+        assertEquals(0, background.size());
+    }
+
+    @Test
+    public void testLiteralsAsSpans() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        maskedEditText.setText("123");
+        maskedEditText.setLiteralsAsSpans(true);
+
+        assertEquals("123", maskedEditText.getText().toString());
+        maskedEditText.append("45");
+        assertEquals("1234", maskedEditText.getText().toString());
+        assertEquals("1234", maskedEditText.getRawInput());
+        final MaskLiteralSpan[] spans = maskedEditText.getText().getSpans(0, 4, MaskLiteralSpan.class);
+        assertEquals(1, spans.length);
+        assertEquals("-", spans[0].prefix);
+        assertEquals(2, maskedEditText.getText().getSpanStart(spans[0]));
+
+        maskedEditText.setLiteralsAsSpans(false);
+        assertEquals("12-34", maskedEditText.getText().toString());
+    }
+
+    @Test
+    public void testLiteralsAsSpansTypedPlaceholders() throws Exception {
+        maskedEditText.setMask(new Mask.Builder().setMask("00/00").addPlaceholder('0', CharClass.DIGIT).build());
+        maskedEditText.setLiteralsAsSpans(true);
+
+        maskedEditText.setText("1a2b3");
+        assertEquals("123", maskedEditText.getText().toString());
+        assertEquals("123", maskedEditText.getRawInput());
+    }
+
+    @Test
+    public void testMaskHint() throws Exception {
+        maskedEditText.setMask("##/##/####");
+        maskedEditText.setShowMaskHint(true);
+        maskedEditText.setTextColor(Color.BLACK);
+        maskedEditText.setHintTextColor(Color.GRAY);
+        maskedEditText.setText("123");
+
+        assertEquals("_/____", drawMaskHint(maskedEditText));
+
+        //not drawn while the text is not masked yet, it would not line up with it
+        final InputConnection inputConnection = maskedEditText.onCreateInputConnection(new EditorInfo());
+        inputConnection.beginBatchEdit();
+        inputConnection.commitText("4", 1);
+        assertEquals("", drawMaskHint(maskedEditText));
+        inputConnection.endBatchEdit();
+        assertEquals("/____", drawMaskHint(maskedEditText));
+
+        maskedEditText.setShowMaskHint(false);
+        assertEquals("", drawMaskHint(maskedEditText));
+    }
+
     @Test
     public void testActivityRecreated() throws Exception {
         setMask(DEFAULT_MASK, maskedEditText);
@@ -89,6 +387,110 @@ public class MaskedEditTextTest {
         assertEquals("1234", maskedEditText.getRawInput());
     }
 
+    @Test
+    public void testSaveAndRestoreState() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        maskedEditText.setText("12345");
+        maskedEditText.setSelection(2);
+
+        final MaskedEditText restored = new MaskedEditText(activity, null);
+        restored.onRestoreInstanceState(parcel(maskedEditText.onSaveInstanceState()).state);
+
+        assertEquals(DEFAULT_MASK.mask, restored.getMask());
+        assertEquals("12-34", restored.getText().toString());
+        assertEquals("1234", restored.getRawInput());
+        assertEquals(2, restored.getSelectionEnd());
+    }
+
+    @Test
+    public void testSaveStateWhileComposing() throws Exception {
+        setMask(DEFAULT_MASK, maskedEditText);
+        final InputConnection inputConnection = maskedEditText.onCreateInputConnection(new EditorInfo());
+        inputConnection.setComposingText("123", 1);
+
+        final MaskedEditText restored = new MaskedEditText(activity, null);
+        restored.onRestoreInstanceState(parcel(maskedEditText.onSaveInstanceState()).state);
+
+        assertEquals("12-3", restored.getText().toString());
+        assertEquals(4, restored.getSelectionEnd());
+    }
+
+    @Test
+    public void testSavedStateReferencesConfiguredMask() throws Exception {
+        final String longMask = "#### #### #### #### #### #### #### #### #### #### #### #### #### #### ####";
+        maskedEditText.setText("1234");
+        final Parceled configured = parcel(maskedEditText.onSaveInstanceState());
+        maskedEditText.setMask(longMask);
+        final Parceled changed = parcel(maskedEditText.onSaveInstanceState());
+
+        final MaskedEditText restored = new MaskedEditText(activity, null);
+        restored.setMask(longMask);
+        restored.onRestoreInstanceState(configured.state);
+
+        assertEquals("", restored.getMask());
+        assertEquals("1234", restored.getText().toString());
+        assertTrue(configured.size + longMask.length() < changed.size);
+    }
+
+    @Test
+    public void testChangedMaskRestoredWithoutAttaching() throws Exception {
+        maskedEditText.setMask("##/##");
+        maskedEditText.setText("1234");
+
+        final MaskedEditText restored = new MaskedEditText(activity, null);
+        restored.onRestoreInstanceState(parcel(maskedEditText.onSaveInstanceState()).state);
+
+        assertEquals("##/##", restored.getMask());
+        assertEquals("12/34", restored.getText().toString());
+        assertEquals("1234", restored.getRawInput());
+    }
+
+    /** State read back from a parcel, as after the process has been recreated. */
+    private static final class Parceled {
+        Parcelable state;
+        int size;
+    }
+
+    private static Parceled parcel(Parcelable state) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeParcelable(state, 0);
+            final Parceled parceled = new Parceled();
+            parceled.size = parcel.dataSize();
+            parcel.setDataPosition(0);
+            parceled.state = parcel.readParcelable(MaskedEditText.class.getClassLoader());
+            return parceled;
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    /** @return Text drawn by the view in the hint color */
+    private static String drawMaskHint(final MaskedEditText maskedEditText) {
+        maskedEditText.measure(View.MeasureSpec.makeMeasureSpec(1000, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        maskedEditText.layout(0, 0, maskedEditText.getMeasuredWidth(), maskedEditText.getMeasuredHeight());
+        final StringBuilder drawn = new StringBuilder();
+        maskedEditText.draw(new Canvas() {
+            @Override
+            public void drawText(@NonNull char[] text, int index, int count, float x, float y, @NonNull Paint paint) {
+                if (paint.getColor() == maskedEditText.getCurrentHintTextColor()) {
+                    drawn.append(text, index, count);
+                }
+            }
+        });
+        return drawn.toString();
+    }
+
+    private void typeAndDelete(String keys) {
+        for (int i = 0; i < keys.length(); i++) {
+            maskedEditText.append(keys.subSequence(i, i + 1));
+        }
+        while (maskedEditText.length() > 0) {
+            maskedEditText.getText().delete(maskedEditText.length() - 1, maskedEditText.length());
+        }
+    }
+
     private void setMask(final Mask mask, final MaskedEditText maskedEditText) {
         maskedEditText.setMask(mask.mask, mask.maskCharacter);
         maskedEditText.setEnforceMaskLength(mask.enforceMaskLength);